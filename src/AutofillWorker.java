@@ -0,0 +1,107 @@
+import javax.swing.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.concurrent.ExecutionException;
+
+/**
+ *  CLASS: AutofillWorker
+ *  PURPOSE: Runs autofill on a background thread so the GUI keeps responding, and shows its progress.
+ *  AUTHOR: Nathan Poppe
+ *
+ *  The fill splits a copy of the crossword into regions that are filled in parallel (see RegionFiller), or races one
+ *  differently seeded CrosswordFiller per core on it if it can not be split. The Cancel button stops every filler. FRAME_RATE times a second (on the Swing event thread) the words it has placed
+ *  so far and the number of words it places per second are sent to the HelperPanel. Once the fill is done its letters are
+ *  copied into the empty boxes of the crossword (boxes typed into while the fill ran are kept).
+ *  If the fill runs out of time the most complete fill it found is kept. A cancelled fill keeps nothing.
+ */
+public class AutofillWorker extends SwingWorker<Boolean, Void> implements ActionListener {
+
+    private final static int FRAME_RATE = 10; // progress updates per second
+
+    private Crossword crossword; // the crossword shown in the GUI
+    private Crossword copy; // the crossword being filled
+    private Filler filler;
+    private HelperPanel helperPanel;
+    private Timer timer;
+    private volatile boolean isCancelled;
+    private volatile boolean isPartial; // the fill ran out of time, and its most complete fill was kept
+
+    private long lastNumNodes; // for the nodes per second
+    private long lastTime;
+
+    /**
+     * @param timeLimit - the milliseconds the fill may take, 0 for no limit
+     * @param regionCache - the regions filled by earlier autofills of the crossword
+     */
+    public AutofillWorker(Crossword crossword, WordFinder wordFinder, boolean useRegWordList, long timeLimit, RegionCache regionCache, HelperPanel helperPanel){
+        this.crossword = crossword;
+        this.copy = new Crossword(crossword);
+        RegionFiller regionFiller = new RegionFiller(copy, wordFinder, useRegWordList, System.currentTimeMillis());
+        regionFiller.setCache(regionCache);
+        regionFiller.setTimeLimit(timeLimit);
+        this.filler = regionFiller;
+        this.helperPanel = helperPanel;
+        this.timer = new Timer(1000 / FRAME_RATE, this);
+    }
+
+    /**
+     * Starts the fill and the progress updates (call on the Swing event thread)
+     */
+    public void start(){
+        lastTime = System.nanoTime();
+        timer.start();
+        execute();
+    }
+
+    /**
+     * Stops the fill, nothing is kept
+     */
+    public void cancelFill(){
+        isCancelled = true;
+        filler.cancel();
+    }
+
+    @Override
+    protected Boolean doInBackground(){
+        boolean isFilled = filler.fill();
+        if(!isFilled && !isCancelled)
+            isPartial = filler.writeBestPartial();
+        return isFilled;
+    }
+
+    /**
+     * Sends the progress to the HelperPanel (called by the timer)
+     */
+    @Override
+    public void actionPerformed(ActionEvent e){
+        long time = System.nanoTime();
+        long numNodes = filler.getNumNodes();
+        long nodesPerSecond = (numNodes - lastNumNodes) * 1000000000 / Math.max(1, time - lastTime);
+        lastNumNodes = numNodes;
+        lastTime = time;
+        helperPanel.showAutofillProgress(filler.getProgressGrid(), nodesPerSecond);
+    }
+
+    @Override
+    protected void done(){
+        timer.stop();
+        boolean isFilled = false;
+        try{
+            isFilled = get();
+        }
+        catch(InterruptedException | ExecutionException e){
+            System.out.println("Could not autofill crossword!");
+        }
+        if(isFilled || isPartial)
+            crossword.copyLetters(copy.getGrid(), true);
+        if(isFilled)
+            helperPanel.autofillDone("Filled");
+        else if(isCancelled)
+            helperPanel.autofillDone("Cancelled");
+        else if(isPartial)
+            helperPanel.autofillDone("Partly filled");
+        else
+            helperPanel.autofillDone("Could not fill");
+    }
+
+}
@@ -0,0 +1,122 @@
+import java.io.File;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ *  CLASS: BatchGenerator
+ *  PURPOSE: Fills crosswords from the command line (no GUI): every template, as many times as asked, in parallel.
+ *  AUTHOR: Nathan Poppe
+ *
+ *  Usage: java -cp .:jars/* BatchGenerator [grids per template] [threads] [reg|long] [seconds per grid] [folder] [threads per grid]
+ *      eg. java -cp .:jars/* BatchGenerator 20 4 reg 60 resources/crosswords/ 1
+ *  Each grid is filled by its own RegionFiller (seed = the grid's number, so a run can be repeated), on a fixed pool of
+ *  threads. With 1 thread per grid (the default) the regions of a grid are filled one at a time and a grid that can not
+ *  be split gets one CrosswordFiller. More threads per grid fill the regions in parallel and race differently seeded
+ *  fillers on grids that can not be split (which cuts the time of the slowest grids, but takes more threads).
+ *  Every grid has its own region cache, so the grids of a template are not all filled alike.
+ *  Filled grids are saved with CrosswordWriter as <template name>-<grid number>.txt, grids that could not be
+ *  filled in time are skipped. A line is printed for every grid, then the totals.
+ */
+public class BatchGenerator {
+
+    private final static String TEMPLATES_FILE_PATH = "resources/crossword-templates.txt";
+    private final static String DEFAULT_SAVE_FOLDER = "resources/crosswords/";
+
+    private int gridsPerTemplate;
+    private int numThreads;
+    private boolean useRegWordList;
+    private long timeLimit; // milliseconds per grid
+    private String saveFolder;
+    private int threadsPerGrid; // regions filled at once, or fillers raced, on each grid (see RegionFiller)
+    private AtomicLong numNodes = new AtomicLong(); // searched by every fill together
+
+    public BatchGenerator(int gridsPerTemplate, int numThreads, boolean useRegWordList, long timeLimit, String saveFolder, int threadsPerGrid){
+        this.gridsPerTemplate = gridsPerTemplate;
+        this.numThreads = numThreads;
+        this.useRegWordList = useRegWordList;
+        this.timeLimit = timeLimit;
+        this.saveFolder = saveFolder;
+        this.threadsPerGrid = threadsPerGrid;
+    }
+
+    public static void main(String[] args){
+        System.setProperty("java.awt.headless", "true"); // never needs a display
+        int gridsPerTemplate = args.length > 0 ? Integer.parseInt(args[0]) : 1;
+        int numThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        boolean useRegWordList = args.length <= 2 || !args[2].equals("long");
+        long timeLimit = args.length > 3 ? Long.parseLong(args[3]) * 1000 : 60000;
+        String saveFolder = args.length > 4 ? args[4] : DEFAULT_SAVE_FOLDER;
+        if(!saveFolder.endsWith("/"))
+            saveFolder += "/";
+        int threadsPerGrid = args.length > 5 ? Integer.parseInt(args[5]) : 1;
+        new BatchGenerator(gridsPerTemplate, numThreads, useRegWordList, timeLimit, saveFolder, threadsPerGrid).run();
+    }
+
+    /**
+     * Fills and saves every grid, printing the timings
+     */
+    public void run(){
+        long loadStart = System.nanoTime();
+        WordFinder wordFinder = new WordFinder();
+        ArrayList<Crossword> templates = new CrosswordReader().readInCrosswords(TEMPLATES_FILE_PATH, true);
+        System.out.println("Loaded " + templates.size() + " templates and the dictionaries in " + getMillis(loadStart) + " ms");
+        new File(saveFolder).mkdirs();
+
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        ArrayList<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+        long start = System.nanoTime();
+        for(int grid = 0; grid < templates.size() * gridsPerTemplate; grid++){
+            Crossword template = templates.get(grid % templates.size());
+            int gridNum = grid;
+            results.add(executor.submit(() -> fill(template, gridNum, wordFinder)));
+        }
+
+        int numFilled = 0;
+        for(Future<Boolean> result : results){
+            try{
+                if(result.get())
+                    numFilled++;
+            }
+            catch(InterruptedException e){
+                Thread.currentThread().interrupt();
+                break;
+            }
+            catch(ExecutionException e){
+                System.out.println("Could not fill crossword!");
+            }
+        }
+        executor.shutdown();
+
+        long millis = getMillis(start);
+        System.out.println("Filled " + numFilled + " of " + results.size() + " grids in " + millis + " ms with " + numThreads + " threads");
+        System.out.println(String.format("%.2f grids/s, %.0f ms/grid, %,d nodes", numFilled * 1000.0 / Math.max(1, millis), millis * 1.0 / Math.max(1, numFilled), numNodes.get()));
+    }
+
+    /**
+     * Fills a copy of the template and saves it
+     * @return - true if it was filled
+     */
+    private boolean fill(Crossword template, int gridNum, WordFinder wordFinder){
+        long start = System.nanoTime();
+        Crossword crossword = new Crossword(template);
+        crossword.setName(template.getName() + "-" + gridNum);
+        RegionFiller filler = new RegionFiller(crossword, wordFinder, useRegWordList, gridNum);
+        filler.setNumThreads(threadsPerGrid);
+        filler.setTimeLimit(timeLimit);
+        boolean isFilled = filler.fill();
+        if(isFilled)
+            new CrosswordWriter().saveCrossword(crossword, saveFolder);
+        System.out.println(crossword.getName() + ": " + (isFilled ? "filled" : "not filled") + " in " + getMillis(start) + " ms (" + filler.getNumNodes() + " nodes)");
+        numNodes.addAndGet(filler.getNumNodes());
+        return isFilled;
+    }
+
+    private static long getMillis(long start){
+        return (System.nanoTime() - start) / 1000000;
+    }
+
+}
@@ -26,4 +26,8 @@ public class Clue {
         return number;
     }
 
+    public void setNumber(int number){
+        this.number = number;
+    }
+
 }
@@ -1,5 +1,6 @@
 import javax.swing.*;
 import java.awt.*;
+import java.util.concurrent.CompletableFuture;
 
 /**
  *  CLASS: ControlPanel
@@ -35,7 +36,7 @@ public class ControlPanel extends JPanel {
         cluesPanel = new CluesPanel(crossword, cluesTab, this);
     }
 
-    public void setUpHelperPanel(WordFinder wordFinder){
+    public void setUpHelperPanel(CompletableFuture<WordFinder> wordFinder){
         helperPanel = new HelperPanel(crossword, helperTab, this, wordFinder);
     }
 
@@ -50,4 +51,8 @@ public class ControlPanel extends JPanel {
     public void fillInWord(String suggestion){
         gui.fillInWord(suggestion);
     }
+
+    public void setPreviewGrid(Grid previewGrid){
+        gui.setPreviewGrid(previewGrid);
+    }
 }
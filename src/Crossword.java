@@ -10,20 +10,26 @@ public class Crossword {
     // the "difficulty level" of the crossword is determined by the percentage of all boxes that are not filled
     private final static float HARD_DIFF_BENCHMARK = 0.85f; // any crossword with >=85% open boxes is classified as hard
     private final static float MED_DIFF_BENCHMARK = 0.82f; // any crossword with <85% and >=82% open boxes is classified as medium
+    // once a template is rated (see TemplateRater), its difficulty comes from how hard it was to fill instead
+    private final static float HARD_RATING_BENCHMARK = 0.5f; // any template rated >=0.5 is classified as hard
+    private final static float MED_RATING_BENCHMARK = 0.12f; // any template rated <0.5 and >=0.12 is classified as medium
+    private final static float NOT_RATED = -1;
 
     // crossword sizes pertain to the width and height of the crossword
     private final static int DEFAULT_SIZE = 15;
     private final static int MIN_SIZE = 3;
-    private final static int MAX_SIZE = 20;
+    private final static int MAX_SIZE = 100; // width and height are independent (eg. 25x25 Sunday, 50x70 jumbo)
 
     private String name;
     private int width;
     private int height;
     private int numBoxesFilled; // used to determine difficulty level
-    private int[][] numbers; // -1 indicates filled box, 0 indicates no number
-    private char[][] letters; // '_' indicates no letter
+    private float fillRating = NOT_RATED; // 0 (easy) to 1 (could not be filled), see TemplateRater
+    private Grid grid; // the blocks and letters
     private ArrayList<Clue> acrossClues; // "" indicates no clue
     private ArrayList<Clue> downClues;
+    private SlotTable slotTable; // the numbers and entries, rebuilt by setNumbers()
+    private EditJournal journal; // the letter edits that can be undone
 
     // "default" constructor (used for creating a new template)
     public Crossword(int width, int height){
@@ -31,136 +37,139 @@ public class Crossword {
         this.height = height;
         this.numBoxesFilled = 0;
         setTemplateName();
-        initializeNumbers(0);
+        this.grid = new Grid(height, width);
+        this.journal = new EditJournal(width * height);
         setNumbers();
-        initializeLetters('_');
-        initializeClues("");
+        initializeClues();
     }
 
     // constructor used for creating a crossword from template (no letters/clues)
-    public Crossword(String name, int width, int height, int numBoxesFilled, int[][] numbers){
+    public Crossword(String name, int width, int height, int numBoxesFilled, Grid grid){
         this.name = name;
         this.width = width;
         this.height = height;
         this.numBoxesFilled = numBoxesFilled;
-        this.numbers = numbers;
+        this.grid = grid;
+        this.journal = new EditJournal(width * height);
         setNumbers();
-        initializeLetters('_');
-        initializeClues("");
+        initializeClues();
     }
 
     // constructor used for loading an already started/completed crossword
-    public Crossword(String name, int width, int height, int numBoxesFilled, int[][] numbers, char[][] letters, ArrayList<Clue> acrossClues, ArrayList<Clue> downClues) {
+    public Crossword(String name, int width, int height, int numBoxesFilled, Grid grid, ArrayList<Clue> acrossClues, ArrayList<Clue> downClues) {
         this.name = name;
         this.width = width;
         this.height = height;
         this.numBoxesFilled = numBoxesFilled;
-        this.numbers = numbers;
-        this.letters = letters;
+        this.grid = grid;
         this.acrossClues = acrossClues;
         this.downClues = downClues;
+        this.journal = new EditJournal(width * height);
         setNumbers();
     }
 
+    // constructor used for copying a crossword (eg. so a copy can be filled on another thread)
+    public Crossword(Crossword crossword){
+        this.name = crossword.name;
+        this.width = crossword.width;
+        this.height = crossword.height;
+        this.numBoxesFilled = crossword.numBoxesFilled;
+        this.fillRating = crossword.fillRating;
+        this.grid = new Grid(crossword.grid);
+        this.acrossClues = copyClues(crossword.acrossClues);
+        this.downClues = copyClues(crossword.downClues);
+        this.slotTable = crossword.slotTable; // never changes, so it can be shared
+        this.journal = new EditJournal(width * height); // the copy starts without edits
+    }
 
     /**
-     * Initialize all entries of the numbers array to x
-     * @param x - the integer to initialize to
+     * Initialize an empty clue for every across and down entry
      */
-    private void initializeNumbers(int x){
-        numbers = new int[width][height];
-        for(int i = 0; i < width; i++){
-            for(int j = 0; j < height; j++){
-                numbers[i][j] = x;
-            }
+    private void initializeClues(){
+        acrossClues = new ArrayList<Clue>();
+        downClues = new ArrayList<Clue>();
+        for(int i = 0; i < slotTable.getNumSlots(true); i++){
+            acrossClues.add(new Clue("", slotTable.getSlotOfClue(true, i).getNumber()));
+        }
+        for(int i = 0; i < slotTable.getNumSlots(false); i++){
+            downClues.add(new Clue("", slotTable.getSlotOfClue(false, i).getNumber()));
         }
     }
 
+    private ArrayList<Clue> copyClues(ArrayList<Clue> clues){
+        ArrayList<Clue> copy = new ArrayList<Clue>();
+        for(Clue clue : clues){
+            copy.add(new Clue(clue.getDescription(), clue.getNumber()));
+        }
+        return copy;
+    }
+
     /**
-     * Initialize all entries of the letters array to x
-     * @param x - the char to initialize to
+     * Rebuilds the numbers and entries from the blocks of the grid (call after changing the blocks). The SlotTable numbers
+     * every open box that starts an across or down entry, in reading order, and gives each entry its clue index (see
+     * getSlotTable). The edit history and the fill rating are cleared, since they were for the old blocks.
      */
-    private void initializeLetters(char x){
-        letters = new char[width][height];
-        for(int i = 0; i < width; i++){
-            for(int j = 0; j < height; j++){
-                letters[i][j] = '_';
-            }
-        }
+    public void setNumbers(){
+        slotTable = new SlotTable(grid);
+        journal.clear();
+        fillRating = NOT_RATED; // the blocks may have changed
     }
 
     /**
-     * Initialize across and down clues to x
-     * @param x - the String to initialize each clue to
+     * Fills in (or empties) a few boxes and renumbers only the rows and columns they are in. The clues are updated in place:
+     * an entry that still starts at the same box keeps its clue, the other clues are shifted to their new numbers.
+     * @param boxes - row, col of each box to change
+     * @param isBlock - true to fill the boxes in, false to empty them
      */
-    private void initializeClues(String x){
-        acrossClues = new ArrayList<Clue>();
-        downClues = new ArrayList<Clue>();
-        for (int i = 0; i < width; i++) {
-            for (int j = 0; j < height; j++) {
-                // if current box number > 0 and (on left edge or box to the left is filled)
-                if (numbers[i][j] > 0 && (j == 0 || numbers[i][j - 1] == -1)) {
-                    acrossClues.add(new Clue("", numbers[i][j]));
-                }
-                // if current box number > 0 and (on top edge or box above is filled)
-                if (numbers[i][j] > 0 && (i == 0 || numbers[i - 1][j] == -1)) {
-                    downClues.add(new Clue("", numbers[i][j]));
-                }
-            }
+    public void setBlocks(int[][] boxes, boolean isBlock){
+        for(int[] box : boxes){
+            grid.setBlock(box[0], box[1], isBlock);
         }
+        journal.clear();
+        fillRating = NOT_RATED;
+        SlotTable oldTable = slotTable;
+        slotTable = slotTable.update(grid, boxes);
+        updateClues(acrossClues, oldTable, true);
+        updateClues(downClues, oldTable, false);
     }
 
     /**
-     * Convert 0s into their proper across/down numbers (or leave them as 0 if box has no number)
-     * Example: -1 0 0     -1 1 2  (-1 still means a filled box)
-     *           0 0 0 -->  3 0 0  (0 means no number in the box)
-     *          -1 0 0     -1 4 0  (>0 means a clue number)
+     * Matches the clues to the entries of the new slot table (clues of removed entries are dropped, new entries get an
+     * empty clue)
+     * @param oldTable - the slot table the clues were matching
      */
-    public void setNumbers(){
-        int count = 1;
-        for (int i = 0; i < width; i++) {
-            for (int j = 0; j < height; j++) {
-                // if box is not filled in
-                if(numbers[i][j] != -1) {
-                    // if box is on edge
-                    if (!isInBounds(i, j - 1) || !isInBounds(i - 1, j)) {
-                        numbers[i][j] = count;
-                        count++;
-                    } else {
-                        // if box is not on edge and box to left or number above is filled
-                        if (numbers[i][j - 1] == -1 || numbers[i - 1][j] == -1) {
-                            numbers[i][j] = count;
-                            count++;
-                        }
-                        else{
-                            numbers[i][j] = 0;
-                        }
-                    }
-                }
+    private void updateClues(ArrayList<Clue> clues, SlotTable oldTable, boolean isAcross){
+        ArrayList<Clue> updated = new ArrayList<Clue>(slotTable.getNumSlots(isAcross));
+        for(int i = 0; i < slotTable.getNumSlots(isAcross); i++){
+            Slot slot = slotTable.getSlotOfClue(isAcross, i);
+            Slot oldSlot = oldTable.getSlotAt(slot.getRow(), slot.getCol(), isAcross);
+            if(oldSlot != null && oldSlot.getRow() == slot.getRow() && oldSlot.getCol() == slot.getCol() && oldSlot.getClueIndex() < clues.size()){
+                Clue clue = clues.get(oldSlot.getClueIndex());
+                clue.setNumber(slot.getNumber());
+                updated.add(clue);
+            }
+            else{
+                updated.add(new Clue("", slot.getNumber()));
             }
         }
-    }
-
-    private boolean isInBounds(int i, int j){
-        return i >= 0 && i < width && j >= 0 && j < height;
+        clues.clear();
+        clues.addAll(updated);
     }
 
     /**
-     * Saves name, width, height, numBoxesFilled and numbers (all template data) into 1 string
+     * Saves name, width, height, numBoxesFilled (and the fill rating once rated) and numbers (all template data) into 1 string
      * @return - returns the partial save string (templates)
      */
     public String getSaveTemplateString(){
-        String str = name + "\n" + width + "\n" + height + "\n" + numBoxesFilled + "\n";
-        for(int i = 0; i < width; i++){
-            for(int j = 0; j < height; j++){
-                if(numbers[i][j] == -1)
-                    str += '!';
-                else
-                    str += '0';
+        String filled = isRated() ? numBoxesFilled + " " + fillRating : "" + numBoxesFilled;
+        StringBuilder str = new StringBuilder(name + "\n" + width + "\n" + height + "\n" + filled + "\n");
+        for(int row = 0; row < height; row++){
+            for(int col = 0; col < width; col++){
+                str.append(grid.isBlock(row, col) ? '!' : '0');
             }
         }
-        str += "\n";
-        return str;
+        str.append("\n");
+        return str.toString();
     }
 
     /**
@@ -168,19 +177,19 @@ public class Crossword {
      * @return - returns the full save string (crosswords)
      */
     public String getSaveString(){
-        String str = getSaveTemplateString();
-        for(int i = 0; i < width; i++){
-            for(int j = 0; j < height; j++){
-                str += letters[i][j];
+        StringBuilder str = new StringBuilder(getSaveTemplateString());
+        for(int row = 0; row < height; row++){
+            for(int col = 0; col < width; col++){
+                str.append(grid.getLetter(row, col));
             }
         }
         for(int i = 0; i < acrossClues.size(); i++){
-            str += "\n" + acrossClues.get(i).getNumber() + ". " + acrossClues.get(i).getDescription();
+            str.append("\n" + acrossClues.get(i).getNumber() + ". " + acrossClues.get(i).getDescription());
         }
         for(int i = 0; i < downClues.size(); i++){
-            str += "\n" + downClues.get(i).getNumber() + ". " + downClues.get(i).getDescription();
+            str.append("\n" + downClues.get(i).getNumber() + ". " + downClues.get(i).getDescription());
         }
-        return str;
+        return str.toString();
     }
 
     public String getName(){
@@ -199,16 +208,102 @@ public class Crossword {
         return numBoxesFilled;
     }
 
+    public float getFillRating(){
+        return fillRating;
+    }
+
+    /**
+     * @param fillRating - 0 (easy) to 1 (could not be filled), see TemplateRater
+     */
+    public void setFillRating(float fillRating){
+        this.fillRating = fillRating;
+    }
+
+    public boolean isRated(){
+        return fillRating != NOT_RATED;
+    }
+
+    /**
+     * @return - the clue number of the box: -1 for a filled box, 0 for a box without a number
+     */
     public int getNumber(int row, int col){
-        return numbers[row][col];
+        return slotTable.getNumber(row, col);
+    }
+
+    public boolean isBlock(int row, int col){
+        return grid.isBlock(row, col);
+    }
+
+    /**
+     * Fills in (or empties) a box, call setNumbers() after changing the blocks (or use setBlocks())
+     */
+    public void setBlock(int row, int col, boolean isBlock){
+        grid.setBlock(row, col, isBlock);
     }
 
-    public int[][] getNumbers(){
-        return numbers;
+    /**
+     * @return - the letter in the box ('_' if there is none)
+     */
+    public char getLetter(int row, int col){
+        return grid.getLetter(row, col);
     }
 
-    public char[][] getLetters(){
-        return letters;
+    /**
+     * Writes a letter (one edit that can be undone)
+     * @param letter - the letter ('_' to erase it)
+     */
+    public void setLetter(int row, int col, char letter){
+        int box = row * width + col;
+        int oldCode = grid.getLetterCode(box);
+        grid.setLetter(row, col, letter);
+        journal.record(box, oldCode, grid.getLetterCode(box));
+    }
+
+    /**
+     * Copies the letters of a grid of the same size (eg. one filled by autofill) as one edit
+     * @param onlyEmpty - true to only fill the boxes that have no letter yet
+     */
+    public void copyLetters(Grid letters, boolean onlyEmpty){
+        journal.begin();
+        for(int box = 0; box < grid.getNumBoxes(); box++){
+            int oldCode = grid.getLetterCode(box);
+            if(!onlyEmpty || oldCode == 0){
+                grid.setLetterCode(box, letters.getLetterCode(box));
+                journal.record(box, oldCode, letters.getLetterCode(box));
+            }
+        }
+        journal.end();
+    }
+
+    /**
+     * Starts grouping letter changes into one edit, until endEdit() (eg. every word written by an autofill)
+     */
+    public void startEdit(){
+        journal.begin();
+    }
+
+    public void endEdit(){
+        journal.end();
+    }
+
+    /**
+     * Undoes the last letter edit
+     * @return - false if there was nothing to undo
+     */
+    public boolean undo(){
+        return journal.undo(grid);
+    }
+
+    /**
+     * Redoes the last undone letter edit
+     * @return - false if there was nothing to redo
+     */
+    public boolean redo(){
+        return journal.redo(grid);
+    }
+
+    public Grid getGrid(){
+        return grid;
     }
 
     public ArrayList<Clue> getAcrossClues(){
@@ -231,10 +326,6 @@ public class Crossword {
         return MAX_SIZE;
     }
 
-    public void setNumber(int number, int i, int j){
-        numbers[i][j] = number;
-    }
-
     public void changeNumBoxesFilled(int amount){
         numBoxesFilled += amount;
     }
@@ -244,35 +335,25 @@ public class Crossword {
      * Eg. input: 10 across, output: 6 (if 10 is the 6-th across clue)
      * @param clueNum - the number of the clue
      * @param isAcross - if the clues is across/down
-     * @return the index
+     * @return the index (the number of clues if there is no such clue)
      */
     public int getClueIndex(int clueNum, boolean isAcross){
-        ArrayList<Clue> clues = acrossClues;
-        if(!isAcross)
-            clues = downClues;
-        int count = 0;
-        while(count < clues.size() && clueNum != clues.get(count).getNumber()){
-            count++;
-        }
-        return count;
+        Slot slot = slotTable.getSlot(clueNum, isAcross);
+        if(slot == null || slot.getNumber() != clueNum)
+            return isAcross ? acrossClues.size() : downClues.size();
+        return slot.getClueIndex();
     }
 
     /**
      * Given a selected clue returns the location in the letters array that the word starts at
      * @param number - the number of the clue
-     * @return
+     * @return - the column and row, {-1, -1} if there is no such number
      */
     public int[] getNumberLocation(int number){
-        int[] location = new int[]{-1, -1};
-        for(int i = 0; i < width; i++){
-            for(int j = 0; j < height; j++){
-                if(numbers[j][i] == number){
-                    location[0] = i;
-                    location[1] = j;
-                }
-            }
-        }
-        return location;
+        int[] box = slotTable.getNumberBox(number);
+        if(box == null)
+            return new int[]{-1, -1};
+        return new int[]{box[1], box[0]};
     }
 
     /**
@@ -282,23 +363,21 @@ public class Crossword {
      * @return
      */
     public String getSuggestion(int number, boolean isAcross){
-        int[] location = getNumberLocation(number);
-        int i = location[0];
-        int j = location[1];
-        String suggestion = "";
-        if(isAcross){
-            while(i < width && numbers[j][i] != -1){
-                suggestion += letters[j][i];
-                i++;
-            }
-        }
-        else{
-            while(j < height && numbers[j][i] != -1){
-                suggestion += letters[j][i];
-                j++;
-            }
+        Slot slot = slotTable.getSlot(number, isAcross);
+        if(slot == null)
+            return "";
+        char[] suggestion = new char[slot.getLength()];
+        for(int position = 0; position < slot.getLength(); position++){
+            suggestion[position] = grid.getLetter(slot.getRow(position), slot.getCol(position));
         }
-        return suggestion.toLowerCase();
+        return new String(suggestion).toLowerCase();
+    }
+
+    /**
+     * @return - the entries of the crossword (rebuilt whenever the crossword is renumbered)
+     */
+    public SlotTable getSlotTable(){
+        return slotTable;
     }
 
     public void setName(String name){
@@ -306,38 +385,29 @@ public class Crossword {
     }
 
     /**
-     * Sets a template name based on the size and difficulty rating. Eg. 15 x 15 (Medium)
+     * Sets a template name based on the size and difficulty rating (the fill rating, or the open boxes if not rated yet).
+     * Eg. 15 x 15 (Medium)
      */
     public void setTemplateName(){
         String difficulty = "Easy";
         float percentOpen = 1.0f - numBoxesFilled * 1.0f / (width * height);
-        if(percentOpen >= HARD_DIFF_BENCHMARK)
+        if(isRated() ? fillRating >= HARD_RATING_BENCHMARK : percentOpen >= HARD_DIFF_BENCHMARK)
             difficulty = "Hard";
-        else if(percentOpen >= MED_DIFF_BENCHMARK)
+        else if(isRated() ? fillRating >= MED_RATING_BENCHMARK : percentOpen >= MED_DIFF_BENCHMARK)
             difficulty = "Medium";
         this.name = width + "x" + height + "-" + difficulty;
     }
 
+    /**
+     * Writes a word into an entry (one edit that can be undone)
+     */
     public void fillInWord(String word, int clueNumber, boolean isAcross){
-        int[] wordLocation = getNumberLocation(clueNumber);
-        int i = wordLocation[0];
-        int j = wordLocation[1];
-        int count = 0;
-        if(isAcross){
-            while(count < word.length()) {
-                letters[j][i + count] = word.charAt(count);
-                count++;
-            }
-        }
-        else{
-            while(count < word.length()) {
-                letters[j + count][i] = word.charAt(count);
-                count++;
-            }
+        Slot slot = slotTable.getSlot(clueNumber, isAcross);
+        journal.begin();
+        for(int position = 0; slot != null && position < Math.min(word.length(), slot.getLength()); position++){
+            setLetter(slot.getRow(position), slot.getCol(position), word.charAt(position));
         }
+        journal.end();
     }
 
-
 }
-
-
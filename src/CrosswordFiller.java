@@ -0,0 +1,420 @@
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ *  CLASS: CrosswordFiller
+ *  PURPOSE: Fills every open entry of a crossword with dictionary words (autofill).
+ *  AUTHOR: Nathan Poppe
+ *
+ *  Every across/down entry of 2+ boxes is a variable whose domain is the dictionary words that still fit it (see SlotDomains,
+ *  which keeps the domains arc consistent). The search is a depth first backtracking search:
+ *      - the entry with the fewest remaining words is filled next (most constrained first)
+ *      - its words are tried in the order that leaves the crossing entries the most words (least constraining first)
+ *      - after a word is placed the change is propagated to every entry, and the word is undone as soon as some entry has
+ *        no words left
+ *      - when every word of an entry has failed, the search jumps straight back to the most recent entry that caused one
+ *        of the failures (conflict directed backjumping) instead of just the previous entry, and the combination of words
+ *        that caused them is remembered as a nogood (see NogoodTable) so it is never tried again
+ *  A search that gets stuck in a bad corner can take a very long time, so an attempt that places too many words is
+ *  abandoned and the search restarts (with different random tie breaks and a larger limit each time).
+ *  Letters already in the crossword are kept, entries that are already complete are left as they are.
+ *  The fill can be limited to a region of the crossword (see setRegion), RegionFiller uses this to fill the independent
+ *  parts of a crossword separately.
+ *  The same word is never used twice. The fill is only written back into the crossword (with fillInWord) once it is complete.
+ *  A fill is deterministic: the same crossword, dictionary, seed and noise always give the same words.
+ *
+ *  The fill can be watched from another thread while it runs: getProgressGrid gives the words placed right now, and if
+ *  the fill runs out of time (see setTimeLimit) writeBestPartial puts the most complete fill it found into the crossword.
+ */
+public class CrosswordFiller implements Filler {
+
+    private final static long FIRST_NODE_LIMIT = 2000; // the number of words the first attempt may place before restarting
+    private final static int MAX_NOGOODS = 50000; // the size of the nogood table
+    private final static int MAX_NOGOOD_SIZE = 10; // bigger nogoods are not remembered (they are rarely hit again)
+
+    private Crossword crossword;
+    private WordFinder wordFinder;
+    private boolean useRegWordList;
+    private Random random; // breaks ties between equally good words, so different seeds give different fills
+    private double noise; // the amount of randomness added to the word scores
+    private boolean[][] region; // only the entries inside it are filled, null for the whole crossword
+    private long nodeLimit; // the fill gives up after placing this many words, 0 for no limit
+    private long timeLimit; // the fill gives up after this many milliseconds, 0 for no limit
+    private long deadline; // System.nanoTime() when the fill runs out of time
+    private boolean isOutOfTime;
+
+    private SlotDomains domains;
+    private boolean[] isInRegion; // isInRegion[slot]: every box of the slot is inside the region
+    private int maxSlotLength; // the length of the longest slot
+    private Grid startGrid; // the crossword's grid before the fill
+    private volatile long numNodes; // the number of words placed so far (including ones that were undone)
+    private long maxNodes; // the current attempt gives up once numNodes reaches this
+    private boolean isOutOfNodes; // if the current attempt gave up because it reached maxNodes
+    private boolean isUnfillable; // if a failure was proven not to depend on any placed word
+
+    // conflict directed backjumping
+    private int[] slotDepths; // the depth each slot was filled at, -1 if it is open
+    private int[] assignedOrdinals; // the word in each slot, -1 if it is open
+    private boolean[][] conflicts; // conflicts[depth][slot]: the slot caused a failure below the slot filled at depth
+    private int jumpDepth; // the depth a failing search jumps back to
+    private NogoodTable nogoods;
+
+    // progress (read from other threads)
+    private volatile int[] progressOrdinals; // a copy of assignedOrdinals after the last word was placed
+    private volatile int[] bestOrdinals; // the copy of assignedOrdinals with the most filled slots so far
+    private int bestDepth;
+    private volatile boolean isCancelled; // set from another thread to stop the fill
+
+    /**
+     * @param crossword - the crossword to fill (its blocks and letters are kept)
+     * @param wordFinder - finds the words for each entry
+     * @param useRegWordList - true to fill with the regular dictionary, false for the large dictionary
+     * @param seed - the same seed gives the same fill
+     */
+    public CrosswordFiller(Crossword crossword, WordFinder wordFinder, boolean useRegWordList, long seed){
+        this.crossword = crossword;
+        this.wordFinder = wordFinder;
+        this.useRegWordList = useRegWordList;
+        this.random = new Random(seed);
+        this.noise = 1.0;
+    }
+
+    /**
+     * Sets how much random noise is added to the word scores (1 by default). More noise tries less obvious words sooner.
+     */
+    public void setNoise(double noise){
+        this.noise = noise;
+    }
+
+    /**
+     * Only fills the entries whose boxes are all inside the region (the other entries are left as they are, but their
+     * words must still fit the letters the fill puts in them)
+     * @param region - region[row][col] is true for the boxes inside the region, null for the whole crossword
+     */
+    public void setRegion(boolean[][] region){
+        this.region = region;
+    }
+
+    /**
+     * Makes the fill give up (and return false) after placing this many words, 0 (the default) for no limit
+     */
+    public void setNodeLimit(long nodeLimit){
+        this.nodeLimit = nodeLimit;
+    }
+
+    /**
+     * Makes the fill give up (and return false) after this many milliseconds, 0 (the default) for no limit.
+     * The most complete fill found by then can be kept with writeBestPartial.
+     */
+    public void setTimeLimit(long timeLimit){
+        this.timeLimit = timeLimit;
+    }
+
+    /**
+     * Fills the crossword
+     * @return - true if every entry was filled (the crossword is left unchanged otherwise)
+     */
+    public boolean fill(){
+        deadline = System.nanoTime() + timeLimit * 1000000;
+        startGrid = new Grid(crossword.getGrid());
+        domains = wordFinder.createSlotDomains(useRegWordList, crossword.getSlotTable(), startGrid);
+        if(!domains.isConsistent())
+            return false;
+        int numSlots = domains.getNumSlots();
+        isInRegion = new boolean[numSlots];
+        maxSlotLength = 0;
+        for(int slot = 0; slot < numSlots; slot++){
+            Slot entry = domains.getSlot(slot);
+            if(!domains.isFixed(slot) && entry.getLength() > DictionaryCompiler.MAX_WORD_LENGTH)
+                return false; // no dictionary word is that long (eg. a 40 wide row without blocks)
+            maxSlotLength = Math.max(maxSlotLength, entry.getLength());
+            isInRegion[slot] = true;
+            for(int position = 0; region != null && position < entry.getLength(); position++){
+                isInRegion[slot] &= region[entry.getRow(position)][entry.getCol(position)];
+            }
+        }
+        slotDepths = new int[numSlots];
+        assignedOrdinals = new int[numSlots];
+        Arrays.fill(slotDepths, -1);
+        Arrays.fill(assignedOrdinals, -1);
+        bestDepth = 0;
+        bestOrdinals = assignedOrdinals.clone();
+        progressOrdinals = bestOrdinals;
+        conflicts = new boolean[numSlots + 1][numSlots];
+        nogoods = new NogoodTable(MAX_NOGOODS); // kept between attempts, a nogood holds for every attempt
+        long attemptLimit = FIRST_NODE_LIMIT;
+        boolean isFilled = attempt(numNodes + attemptLimit);
+        while(!isFilled && isOutOfNodes && !isCancelled && !isOutOfTime && !isUnfillable && (nodeLimit == 0 || numNodes < nodeLimit)){
+            attemptLimit = attemptLimit * 3 / 2; // restart, giving the next attempt a bit more room
+            isFilled = attempt(numNodes + attemptLimit);
+        }
+        if(!isFilled || isCancelled)
+            return false;
+        crossword.startEdit(); // the whole fill is undone at once
+        for(int slot = 0; slot < domains.getNumSlots(); slot++){
+            Slot entry = domains.getSlot(slot);
+            if(!domains.isFixed(slot) && isInRegion[slot])
+                crossword.fillInWord(domains.getWords(slot).getWord(0).toUpperCase(), entry.getNumber(), entry.isAcross());
+        }
+        crossword.endEdit();
+        return true;
+    }
+
+    /**
+     * Stops the fill as soon as possible (can be called from any thread), fill() then returns false
+     */
+    public void cancel(){
+        isCancelled = true;
+    }
+
+    public long getNumNodes(){
+        return numNodes;
+    }
+
+    /**
+     * @return - true if the last fill gave up because it ran out of time (not because of the node limit)
+     */
+    public boolean isOutOfTime(){
+        return isOutOfTime;
+    }
+
+    /**
+     * @return - a copy of the crossword's grid with the words the fill has placed right now (can be called from any
+     *           thread), null before the fill has started
+     */
+    public Grid getProgressGrid(){
+        int[] ordinals = progressOrdinals;
+        return ordinals == null ? null : getGrid(ordinals);
+    }
+
+    /**
+     * Writes the most complete fill found into the crossword (for a fill that ran out of time)
+     * @return - false if no word was placed
+     */
+    public boolean writeBestPartial(){
+        int[] ordinals = bestOrdinals;
+        if(ordinals == null || bestDepth == 0)
+            return false;
+        crossword.copyLetters(getGrid(ordinals), false);
+        return true;
+    }
+
+    // the grid before the fill with the words of the ordinals written in
+    private Grid getGrid(int[] ordinals){
+        Grid grid = new Grid(startGrid);
+        for(int slot = 0; slot < ordinals.length; slot++){
+            if(ordinals[slot] == -1)
+                continue;
+            Slot entry = domains.getSlot(slot);
+            String word = domains.getWord(slot, ordinals[slot]);
+            for(int position = 0; position < entry.getLength(); position++){
+                grid.setLetter(entry.getRow(position), entry.getCol(position), word.charAt(position));
+            }
+        }
+        return grid;
+    }
+
+    /**
+     * Runs one attempt (the search starts over from the crossword's letters)
+     * @param maxNodes - the attempt gives up once numNodes reaches this
+     * @return - true if every slot was filled
+     */
+    private boolean attempt(long maxNodes){
+        this.maxNodes = nodeLimit == 0 ? maxNodes : Math.min(maxNodes, nodeLimit);
+        isOutOfNodes = false;
+        return search(0);
+    }
+
+    /**
+     * Fills the open slots, one slot per depth
+     * @return - true if every slot was filled. Otherwise the slots between jumpDepth and depth are left open again.
+     */
+    private boolean search(int depth){
+        int slot = selectSlot();
+        if(slot == -1)
+            return true; // every slot is filled
+        if(timeLimit != 0 && System.nanoTime() >= deadline)
+            isOutOfTime = true;
+        if(numNodes >= maxNodes || isCancelled || isOutOfTime){
+            isOutOfNodes = true;
+            return false;
+        }
+        boolean[] conflict = conflicts[depth];
+        Arrays.fill(conflict, false);
+        slotDepths[slot] = depth;
+        WordMatches words = domains.getWords(slot);
+        for(int index : orderWords(slot, words)){
+            int ordinal = words.getOrdinal(index);
+            int[] nogood = nogoods.find(slot, ordinal, assignedOrdinals);
+            if(nogood != null){
+                for(int i = 0; i < nogood.length; i += 2){
+                    conflict[nogood[i]] = true; // the word fails because of the other words of the nogood
+                }
+                continue;
+            }
+            numNodes++;
+            int mark = domains.mark();
+            assignedOrdinals[slot] = ordinal;
+            jumpDepth = depth;
+            if(domains.assign(slot, ordinal)){
+                progressOrdinals = assignedOrdinals.clone();
+                if(depth + 1 > bestDepth){
+                    bestDepth = depth + 1;
+                    bestOrdinals = progressOrdinals;
+                }
+                if(search(depth + 1))
+                    return true;
+                // the failures below were merged into conflict, unless the search is jumping back further
+            }
+            else{
+                addCulprits(domains.getFailedSlot(), conflict);
+            }
+            domains.undo(mark);
+            assignedOrdinals[slot] = -1;
+            if(isOutOfNodes || jumpDepth < depth){
+                slotDepths[slot] = -1;
+                return false;
+            }
+        }
+
+        addCulprits(slot, conflict); // the words that were already taken out of the slot's domain before it was picked
+        conflict[slot] = false;
+        slotDepths[slot] = -1;
+        learnNogood(conflict);
+        int culprit = -1; // the most recently filled slot that caused a failure
+        for(int other = 0; other < conflict.length; other++){
+            if(conflict[other] && (culprit == -1 || slotDepths[other] > slotDepths[culprit]))
+                culprit = other;
+        }
+        if(culprit == -1){
+            isUnfillable = true; // every failure was caused by the letters that were already in the crossword
+            jumpDepth = -1;
+            return false;
+        }
+        jumpDepth = slotDepths[culprit];
+        for(int other = 0; other < conflict.length; other++){
+            if(conflict[other] && other != culprit)
+                conflicts[jumpDepth][other] = true; // the culprit's slot now also fails because of these slots
+        }
+        return false;
+    }
+
+    /**
+     * Adds the filled slots that caused the slot to run out of words to the conflict. The open slots connected to it
+     * (through open slots) have only been narrowed down by the filled slots crossing them, and by the filled slots of the
+     * same length (a word is only used once).
+     */
+    private void addCulprits(int failedSlot, boolean[] conflict){
+        boolean[] isVisited = new boolean[domains.getNumSlots()];
+        boolean[] isLength = new boolean[maxSlotLength + 1];
+        ArrayDeque<Integer> queue = new ArrayDeque<Integer>();
+        queue.add(failedSlot);
+        isVisited[failedSlot] = true;
+        while(!queue.isEmpty()){
+            int slot = queue.poll();
+            if(domains.isAssigned(slot)){
+                conflict[slot] = true;
+                continue;
+            }
+            isLength[domains.getSlot(slot).getLength()] = true;
+            for(int position = 0; position < domains.getSlot(slot).getLength(); position++){
+                int crossing = domains.getCrossing(slot, position);
+                if(crossing != -1 && !domains.isFixed(crossing) && !isVisited[crossing]){
+                    isVisited[crossing] = true;
+                    queue.add(crossing);
+                }
+            }
+        }
+        for(int slot = 0; slot < domains.getNumSlots(); slot++){
+            if(domains.isAssigned(slot) && isLength[domains.getSlot(slot).getLength()])
+                conflict[slot] = true;
+        }
+    }
+
+    /**
+     * Remembers that the words of the slots in the conflict can not all be in the crossword together
+     */
+    private void learnNogood(boolean[] conflict){
+        int size = 0;
+        for(int slot = 0; slot < conflict.length; slot++){
+            if(conflict[slot])
+                size++;
+        }
+        if(size == 0 || size > MAX_NOGOOD_SIZE)
+            return;
+        int[] assignments = new int[2 * size];
+        StringBuilder key = new StringBuilder();
+        int count = 0;
+        for(int slot = 0; slot < conflict.length; slot++){
+            if(conflict[slot]){
+                assignments[count++] = slot;
+                assignments[count++] = assignedOrdinals[slot];
+                key.append(slot).append('=').append(domains.getWord(slot, assignedOrdinals[slot])).append(' ');
+            }
+        }
+        nogoods.add(key.toString(), assignments);
+    }
+
+    /**
+     * Picks the open slot with the fewest possible words (ties go to the slot with the most open crossings)
+     * @return - the slot, -1 if every slot is filled
+     */
+    private int selectSlot(){
+        int bestSlot = -1;
+        int bestSize = Integer.MAX_VALUE;
+        int bestDegree = -1;
+        for(int slot = 0; slot < domains.getNumSlots(); slot++){
+            if(!isOpen(slot))
+                continue;
+            int size = domains.getSize(slot);
+            if(size < bestSize || size == bestSize && getDegree(slot) > bestDegree){
+                bestSlot = slot;
+                bestSize = size;
+                bestDegree = getDegree(slot);
+            }
+        }
+        return bestSlot;
+    }
+
+    // a slot that still needs a word
+    private boolean isOpen(int slot){
+        return !domains.isFixed(slot) && !domains.isAssigned(slot) && isInRegion[slot];
+    }
+
+    private int getDegree(int slot){
+        int degree = 0;
+        for(int position = 0; position < domains.getSlot(slot).getLength(); position++){
+            int crossing = domains.getCrossing(slot, position);
+            if(crossing != -1 && isOpen(crossing))
+                degree++;
+        }
+        return degree;
+    }
+
+    /**
+     * Orders the slot's words so the words that leave the crossing slots the most options are tried first
+     * (least constraining first). A word's score is the sum of log(number of crossing words that agree with its letter)
+     * over its open crossings, plus some random noise so different seeds try different words first.
+     * @return - the indexes (into words) in the order to try them
+     */
+    private Integer[] orderWords(int slot, WordMatches words){
+        int length = domains.getSlot(slot).getLength();
+        double[] scores = new double[words.size()];
+        Integer[] order = new Integer[words.size()];
+        for(int i = 0; i < words.size(); i++){
+            for(int position = 0; position < length; position++){
+                int crossing = domains.getCrossing(slot, position);
+                if(crossing != -1 && isOpen(crossing)){
+                    int letterIndex = domains.getLetterIndex(slot, words.getOrdinal(i), position);
+                    scores[i] += Math.log(domains.getSupport(crossing, domains.getCrossingPosition(slot, position), letterIndex));
+                }
+            }
+            scores[i] += noise * random.nextDouble();
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(scores[b], scores[a]));
+        return order;
+    }
+
+}
@@ -0,0 +1,171 @@
+import java.util.ArrayList;
+import java.util.HashSet;
+
+/**
+ *  CLASS: CrosswordFillerTest
+ *  PURPOSE: Checks that the fillers (CrosswordFiller, PortfolioFiller and RegionFiller with its cache) only fill in
+ *           dictionary words and never repeat one (no GUI, exits with 1 if a check fails).
+ *  AUTHOR: Nathan Poppe
+ *
+ *  Usage: java -cp .:jars/* CrosswordFillerTest
+ *  Every bundled template is filled with fixed seeds by each filler. A filled crossword must have every entry complete,
+ *  every entry a word of the dictionary and no word twice. The template that splits into regions is also filled again
+ *  with the cache of its first fill, once as it was and once with a word of the first fill written into another entry
+ *  (the cached region that holds the word must not be reused as it is).
+ */
+public class CrosswordFillerTest {
+
+    private final static String TEMPLATES_FILE_PATH = "resources/crossword-templates.txt";
+    private final static long TIME_LIMIT = 20000; // milliseconds per fill, only reached if a filler is broken
+    private final static long[] SEEDS = {1, 2};
+    private final static int SPLIT_TEMPLATE = 1; // the 15x15 that splits into 3 regions
+    private final static int SPLIT_TEMPLATE_REGIONS = 3;
+    private final static int MAX_MOVED_WORDS = 6; // words of the first fill written into other entries
+
+    private static int numChecks;
+    private static int numFailed;
+
+    public static void main(String[] args){
+        System.setProperty("java.awt.headless", "true"); // never needs a display
+        WordFinder wordFinder = new WordFinder();
+        ArrayList<Crossword> templates = new CrosswordReader().readInCrosswords(TEMPLATES_FILE_PATH, true);
+        check(templates.size() > SPLIT_TEMPLATE, templates.size() + " templates read");
+
+        for(Crossword template : templates){
+            for(long seed : SEEDS){
+                for(boolean useRegWordList : new boolean[]{true, false}){
+                    String name = template.getName() + " seed " + seed + (useRegWordList ? " reg" : " long");
+                    Crossword crossword = new Crossword(template);
+                    CrosswordFiller crosswordFiller = new CrosswordFiller(crossword, wordFinder, useRegWordList, seed);
+                    crosswordFiller.setTimeLimit(TIME_LIMIT);
+                    checkFill(crossword, crosswordFiller.fill(), wordFinder, useRegWordList, name + " CrosswordFiller");
+
+                    crossword = new Crossword(template);
+                    PortfolioFiller portfolioFiller = new PortfolioFiller(crossword, wordFinder, useRegWordList, seed, 2);
+                    portfolioFiller.setTimeLimit(TIME_LIMIT);
+                    checkFill(crossword, portfolioFiller.fill(), wordFinder, useRegWordList, name + " PortfolioFiller");
+
+                    crossword = new Crossword(template);
+                    RegionFiller regionFiller = new RegionFiller(crossword, wordFinder, useRegWordList, seed);
+                    regionFiller.setNumThreads(1);
+                    regionFiller.setTimeLimit(TIME_LIMIT);
+                    checkFill(crossword, regionFiller.fill(), wordFinder, useRegWordList, name + " RegionFiller");
+                }
+            }
+        }
+
+        // refills of the template that splits, with the cache of its first fill
+        Crossword template = templates.get(SPLIT_TEMPLATE);
+        RegionCache cache = new RegionCache(256);
+        Crossword first = new Crossword(template);
+        RegionFiller firstFiller = new RegionFiller(first, wordFinder, true, 1);
+        firstFiller.setCache(cache);
+        firstFiller.setNumThreads(1);
+        firstFiller.setTimeLimit(TIME_LIMIT);
+        checkFill(first, firstFiller.fill(), wordFinder, true, template.getName() + " first fill");
+        check(firstFiller.getNumRegions() == SPLIT_TEMPLATE_REGIONS, template.getName() + " splits into " + firstFiller.getNumRegions() + " regions");
+        check(cache.size() > 0, template.getName() + " regions are cached");
+
+        Crossword refill = new Crossword(template);
+        RegionFiller refiller = new RegionFiller(refill, wordFinder, true, 1);
+        refiller.setCache(cache);
+        refiller.setNumThreads(1);
+        refiller.setTimeLimit(TIME_LIMIT);
+        checkFill(refill, refiller.fill(), wordFinder, true, template.getName() + " cached refill");
+        check(refiller.getNumNodes() < firstFiller.getNumNodes(), template.getName() + " cached refill places fewer words ("
+                + refiller.getNumNodes() + " of " + firstFiller.getNumNodes() + ")");
+
+        // a word of the first fill written into another entry: the fill must not use it again
+        ArrayList<Slot> slots = getSlots(template.getSlotTable());
+        int numMoved = 0, numFilled = 0;
+        for(int from = 0; from < slots.size() && numMoved < MAX_MOVED_WORDS; from++){
+            for(int to = 0; to < slots.size() && numMoved < MAX_MOVED_WORDS; to++){
+                if(to == from || slots.get(to).getLength() != slots.get(from).getLength() || isTouching(slots.get(from), slots.get(to)))
+                    continue;
+                Crossword moved = new Crossword(template);
+                String word = getWord(first.getGrid(), slots.get(from));
+                for(int position = 0; position < word.length(); position++){
+                    moved.getGrid().setLetter(slots.get(to).getRow(position), slots.get(to).getCol(position), word.charAt(position));
+                }
+                RegionFiller filler = new RegionFiller(moved, wordFinder, true, 1);
+                filler.setCache(cache);
+                filler.setNumThreads(1);
+                filler.setTimeLimit(TIME_LIMIT);
+                boolean isFilled = filler.fill();
+                if(isFilled)
+                    checkFill(moved, true, wordFinder, true, template.getName() + " with " + word + " moved");
+                numFilled += isFilled ? 1 : 0;
+                numMoved++;
+                break; // the next word
+            }
+        }
+        check(numFilled > 0, template.getName() + " filled with a moved word " + numFilled + " of " + numMoved + " times");
+
+        System.out.println((numChecks - numFailed) + " of " + numChecks + " checks passed");
+        System.exit(numFailed == 0 ? 0 : 1);
+    }
+
+    /**
+     * Checks that the crossword was filled, only with words of the dictionary and none twice
+     */
+    private static void checkFill(Crossword crossword, boolean isFilled, WordFinder wordFinder, boolean useRegWordList, String name){
+        check(isFilled, name + ": filled");
+        if(!isFilled)
+            return;
+        HashSet<String> words = new HashSet<String>();
+        for(Slot slot : getSlots(crossword.getSlotTable())){
+            String word = getWord(crossword.getGrid(), slot);
+            if(word.indexOf(Grid.NO_LETTER) != -1){
+                check(false, name + ": " + word + " is complete");
+                return;
+            }
+            if(wordFinder.findPossibleWords(useRegWordList, word).size() != 1){
+                check(false, name + ": " + word + " is in the dictionary");
+                return;
+            }
+            if(!words.add(word)){
+                check(false, name + ": " + word + " is only used once");
+                return;
+            }
+        }
+        check(true, name + ": " + words.size() + " dictionary words, none repeated");
+    }
+
+    private static ArrayList<Slot> getSlots(SlotTable slotTable){
+        ArrayList<Slot> slots = new ArrayList<Slot>();
+        for(boolean isAcross : new boolean[]{true, false}){
+            for(int i = 0; i < slotTable.getNumSlots(isAcross); i++){
+                slots.add(slotTable.getSlotOfClue(isAcross, i));
+            }
+        }
+        return slots;
+    }
+
+    private static String getWord(Grid grid, Slot slot){
+        String word = "";
+        for(int position = 0; position < slot.getLength(); position++){
+            word += grid.getLetter(slot.getRow(position), slot.getCol(position));
+        }
+        return word;
+    }
+
+    // true if the slots share a box
+    private static boolean isTouching(Slot slot, Slot other){
+        for(int position = 0; position < slot.getLength(); position++){
+            for(int otherPosition = 0; otherPosition < other.getLength(); otherPosition++){
+                if(slot.getRow(position) == other.getRow(otherPosition) && slot.getCol(position) == other.getCol(otherPosition))
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    private static void check(boolean isPassed, String name){
+        numChecks++;
+        if(!isPassed){
+            numFailed++;
+            System.out.println("FAILED: " + name);
+        }
+    }
+
+}
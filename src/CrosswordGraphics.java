@@ -10,6 +10,7 @@ public class CrosswordGraphics extends JPanel implements MouseListener, KeyListe
     private final static double NUMBER_FONT_RATIO = 0.225; // multiplied by boxSize to get numberFontSize
     private final static double NUMBER_GAP_RATIO = 0.05; // multiplied by boxSize to get gap between cell and number
     private final static double LETTER_FONT_RATIO = 0.6; // multiplied by boxSize to get letterFontSize
+    private final static double STATUS_FONT_RATIO = 0.02; // multiplied by panelHeight to get the template status font size
 
     private final static String FONT_NAME = "Arial";
     private final static int FONT_STYLE = Font.PLAIN;
@@ -17,6 +18,8 @@ public class CrosswordGraphics extends JPanel implements MouseListener, KeyListe
     private final static Color LETTER_COLOR = new Color(106, 190, 212);
     private final static Color WORD_COLOR = new Color(175, 214, 224);
     private final static Color HIGHLIGHT_COLOR = new Color(215, 215, 215);
+    private final static Color PREVIEW_COLOR = new Color(150, 150, 150); // the letters of an autofill that is still running
+    private final static Color PROBLEM_COLOR = new Color(240, 175, 175); // template boxes in short entries, unchecked or cut off
 
     private Crossword crossword;
     private int width;
@@ -27,10 +30,12 @@ public class CrosswordGraphics extends JPanel implements MouseListener, KeyListe
 
     private int titleFontSize;
     private int titleGapSize;
+    private int statusFontSize; // 0 unless editing a template
     private int numberGapSize;
     private Font titleFont;
     private Font numberFont;
     private Font letterFont;
+    private Font statusFont;
 
     private CrosswordMaker crosswordMaker;
     private GUI gui;
@@ -40,6 +45,12 @@ public class CrosswordGraphics extends JPanel implements MouseListener, KeyListe
     private int selectedJ = -1;
     private boolean acrossSelected = true;
     private boolean isHighlighted = false;
+    private Grid previewGrid; // its letters are shown in the empty boxes while autofill runs, null if there is none
+    private TemplateValidator validator; // checks the template on every click (template mode only)
+    private boolean isSymmetric = true; // clicks also toggle the box rotated 180 degrees
+
+    // the boxes inside the area being painted (a repaint of a few boxes only draws those boxes, see setVisibleBoxes)
+    private int firstRow, lastRow, firstCol, lastCol;
 
     public CrosswordGraphics(Crossword crossword, int width, int height, String mode, CrosswordMaker crosswordMaker, GUI gui) {
         this.crossword = crossword;
@@ -48,6 +59,8 @@ public class CrosswordGraphics extends JPanel implements MouseListener, KeyListe
         this.mode = mode;
         this.crosswordMaker = crosswordMaker;
         this.gui = gui;
+        if (mode.equals("template"))
+            this.validator = new TemplateValidator(crossword.getGrid());
         setGraphicsDimensions(width, height); // set startX, startY, and boxSize
         setFonts(); // set title, number, and letter fonts
         setSize(new Dimension(width, height));
@@ -67,9 +80,10 @@ public class CrosswordGraphics extends JPanel implements MouseListener, KeyListe
     private void setGraphicsDimensions(int panelWidth, int panelHeight) {
         this.titleFontSize = (int) (TITLE_FONT_RATIO * panelHeight);
         this.titleGapSize = (int) (TITLE_GAP_RATIO * panelHeight);
+        this.statusFontSize = validator == null ? 0 : (int) (STATUS_FONT_RATIO * panelHeight);
 
         int boxAvailableWidth = panelWidth / crossword.getWidth();
-        int boxAvailableHeight = (panelHeight - titleFontSize - titleGapSize) / crossword.getHeight();
+        int boxAvailableHeight = (panelHeight - titleFontSize - titleGapSize - (statusFontSize > 0 ? statusFontSize + titleGapSize : 0)) / crossword.getHeight();
 
         if (boxAvailableHeight > boxAvailableWidth) {
             this.boxSize = boxAvailableWidth;
@@ -86,21 +100,98 @@ public class CrosswordGraphics extends JPanel implements MouseListener, KeyListe
         this.titleFont = new Font(FONT_NAME, FONT_STYLE, titleFontSize);
         this.numberFont = new Font(FONT_NAME, FONT_STYLE, (int) (NUMBER_FONT_RATIO * boxSize));
         this.letterFont = new Font(FONT_NAME, FONT_STYLE, (int) (LETTER_FONT_RATIO * boxSize));
+        this.statusFont = new Font(FONT_NAME, FONT_STYLE, statusFontSize);
         this.numberGapSize = (int) (NUMBER_GAP_RATIO * boxSize);
     }
 
     private void drawCrossword(Graphics2D g2d) {
+        setVisibleBoxes(g2d.getClipBounds());
         drawTitle(crossword.getName(), g2d);
         if (mode.equals("file")) {
             fillSelectedWord(selectedI, selectedJ, acrossSelected, g2d);
-            drawLetters(crossword.getLetters(), g2d);
+            drawLetters(g2d);
+            if (previewGrid != null)
+                drawPreviewLetters(previewGrid, g2d);
         }
         if (isHighlighted)
             highlightTemplate(g2d);
-        drawNumbers(crossword.getNumbers(), g2d);
+        if (validator != null) {
+            drawProblemBoxes(g2d);
+            drawStatus(g2d);
+        }
+        drawNumbers(g2d);
         drawGrid(g2d);
     }
 
+    /**
+     * Shades the open boxes of the template that are in a short entry, unchecked or cut off from the rest of the grid
+     */
+    private void drawProblemBoxes(Graphics2D g2d) {
+        for (int i = firstRow; i <= lastRow; i++) {
+            for (int j = firstCol; j <= lastCol; j++) {
+                if (!crossword.isBlock(i, j) && (validator.isInShortEntry(i, j) || validator.isUncheckedBox(i, j) || validator.isCutOff(i, j)))
+                    drawFilledBox(j, i, PROBLEM_COLOR, g2d);
+            }
+        }
+    }
+
+    /**
+     * Writes what is wrong with the template (if anything) below the grid
+     */
+    private void drawStatus(Graphics2D g2d) {
+        String status = "";
+        if (validator.getNumShortEntries() > 0)
+            status += ", " + validator.getNumShortEntries() + " entries under " + TemplateValidator.MIN_ENTRY_LENGTH + " letters";
+        if (validator.getNumUnchecked() > 0)
+            status += ", " + validator.getNumUnchecked() + " unchecked boxes";
+        if (validator.getNumRegions() > 1)
+            status += ", " + validator.getNumRegions() + " separate regions";
+        status = status.isEmpty() ? "Valid template" : status.substring(2);
+        if (!isSymmetric)
+            status += " - symmetry off (S)";
+        else if (validator.getNumAsymmetric() > 0)
+            status += " - not symmetric";
+        else
+            status += " - symmetry on (S)";
+        g2d.setFont(statusFont);
+        g2d.setColor(validator.isValid() ? Color.black : Color.red.darker());
+        g2d.drawString(status, startX, startY + crossword.getHeight() * boxSize + titleGapSize + statusFontSize);
+    }
+
+    /**
+     * Finds the boxes inside the area being painted, so large grids only draw what changed
+     * @param clip - the area being painted (null for everything)
+     */
+    private void setVisibleBoxes(Rectangle clip) {
+        firstRow = 0;
+        lastRow = crossword.getHeight() - 1;
+        firstCol = 0;
+        lastCol = crossword.getWidth() - 1;
+        if (clip != null && boxSize > 0) {
+            firstRow = Math.max(firstRow, (clip.y - startY) / boxSize);
+            lastRow = Math.min(lastRow, (clip.y + clip.height - startY) / boxSize);
+            firstCol = Math.max(firstCol, (clip.x - startX) / boxSize);
+            lastCol = Math.min(lastCol, (clip.x + clip.width - startX) / boxSize);
+        }
+    }
+
+    /**
+     * Repaints only the given boxes (and their borders)
+     */
+    private void repaintBoxes(int row1, int col1, int row2, int col2) {
+        repaint(startX + Math.min(col1, col2) * boxSize, startY + Math.min(row1, row2) * boxSize, (Math.abs(col2 - col1) + 1) * boxSize + 1, (Math.abs(row2 - row1) + 1) * boxSize + 1);
+    }
+
+    /**
+     * Repaints the boxes of the selected word
+     */
+    private void repaintSelectedWord() {
+        if (selectedI >= 0 && selectedJ >= 0 && !crossword.isBlock(selectedJ, selectedI)) {
+            Slot slot = crossword.getSlotTable().getSlotAt(selectedJ, selectedI, acrossSelected);
+            repaintBoxes(slot.getRow(), slot.getCol(), slot.getRow(slot.getLength() - 1), slot.getCol(slot.getLength() - 1));
+        }
+    }
+
     private void drawTitle(String title, Graphics2D g2d) {
         FontMetrics fontMetrics = getFontMetrics(titleFont);
         int x = startX + crossword.getWidth() * boxSize / 2 - fontMetrics.stringWidth(title) / 2;
@@ -117,11 +208,11 @@ public class CrosswordGraphics extends JPanel implements MouseListener, KeyListe
      */
     private void drawGrid(Graphics2D g2d) {
         g2d.setColor(Color.black);
-        for (int i = 0; i < crossword.getWidth() + 1; i++) {
-            g2d.drawLine(startX + i * boxSize, startY, startX + i * boxSize, startY + crossword.getHeight() * boxSize);
+        for (int i = firstCol; i <= lastCol + 1; i++) {
+            g2d.drawLine(startX + i * boxSize, startY + firstRow * boxSize, startX + i * boxSize, startY + (lastRow + 1) * boxSize);
         }
-        for (int i = 0; i < crossword.getHeight() + 1; i++) {
-            g2d.drawLine(startX, startY + i * boxSize, startX + crossword.getWidth() * boxSize, startY + i * boxSize);
+        for (int i = firstRow; i <= lastRow + 1; i++) {
+            g2d.drawLine(startX + firstCol * boxSize, startY + i * boxSize, startX + (lastCol + 1) * boxSize, startY + i * boxSize);
         }
     }
 
@@ -139,29 +230,45 @@ public class CrosswordGraphics extends JPanel implements MouseListener, KeyListe
         g2d.drawString(String.valueOf(letter), startX + i * boxSize + ((boxSize - fontMetrics.charWidth(letter)) / 2), startY + (j + 1) * boxSize - ((boxSize - fontMetrics.getAscent()) / 2));
     }
 
-    private void drawLetters(char[][] letters, Graphics2D g2d) {
+    private void drawLetters(Graphics2D g2d) {
         g2d.setColor(Color.black);
         g2d.setFont(letterFont);
         FontMetrics fontMetrics = getFontMetrics(letterFont);
-        for (int i = 0; i < letters.length; i++) {
-            for (int j = 0; j < letters[i].length; j++) {
-                if (letters[i][j] != '_') {
-                    drawBoxLetter(letters[i][j], j, i, fontMetrics, g2d);
+        for (int i = firstRow; i <= lastRow; i++) {
+            for (int j = firstCol; j <= lastCol; j++) {
+                if (crossword.getLetter(i, j) != '_') {
+                    drawBoxLetter(crossword.getLetter(i, j), j, i, fontMetrics, g2d);
                 }
             }
         }
     }
 
-    private void drawNumbers(int[][] numbers, Graphics2D g2d) {
+    /**
+     * Paints the preview letters in the boxes that have no letter yet
+     */
+    private void drawPreviewLetters(Grid preview, Graphics2D g2d) {
+        g2d.setColor(PREVIEW_COLOR);
+        g2d.setFont(letterFont);
+        FontMetrics fontMetrics = getFontMetrics(letterFont);
+        for (int i = firstRow; i <= lastRow; i++) {
+            for (int j = firstCol; j <= lastCol; j++) {
+                if (crossword.getLetter(i, j) == '_' && preview.hasLetter(i, j)) {
+                    drawBoxLetter(preview.getLetter(i, j), j, i, fontMetrics, g2d);
+                }
+            }
+        }
+    }
+
+    private void drawNumbers(Graphics2D g2d) {
         FontMetrics fontMetrics = getFontMetrics(numberFont);
         g2d.setColor(Color.black);
         g2d.setFont(numberFont);
-        for (int i = 0; i < numbers.length; i++) {
-            for (int j = 0; j < numbers[i].length; j++) {
-                if (numbers[i][j] == -1) {
+        for (int i = firstRow; i <= lastRow; i++) {
+            for (int j = firstCol; j <= lastCol; j++) {
+                if (crossword.isBlock(i, j)) {
                     drawFilledBox(j, i, Color.black, g2d);
-                } else if (numbers[i][j] > 0) {
-                    drawBoxNumber(numbers[i][j], j, i, fontMetrics.getAscent(), g2d);
+                } else if (crossword.getNumber(i, j) > 0) {
+                    drawBoxNumber(crossword.getNumber(i, j), j, i, fontMetrics.getAscent(), g2d);
                 }
             }
         }
@@ -173,31 +280,12 @@ public class CrosswordGraphics extends JPanel implements MouseListener, KeyListe
     }
 
     private void fillSelectedWord(int i, int j, boolean acrossSelected, Graphics2D g2d) {
-        if (i >= 0 && j >= 0 && crossword.getNumbers()[j][i] != -1) {
-            drawFilledBox(i, j, LETTER_COLOR, g2d);
-            if (acrossSelected) {
-                int index = i - 1;
-                while (index >= 0 && crossword.getNumbers()[j][index] != -1) {
-                    drawFilledBox(index, j, WORD_COLOR, g2d);
-                    index--;
-                }
-                index = i + 1;
-                while (index < crossword.getHeight() && crossword.getNumbers()[j][index] != -1) {
-                    drawFilledBox(index, j, WORD_COLOR, g2d);
-                    index++;
-                }
-            } else {
-                int index = j - 1;
-                while (index >= 0 && crossword.getNumbers()[index][i] != -1) {
-                    drawFilledBox(i, index, WORD_COLOR, g2d);
-                    index--;
-                }
-                index = j + 1;
-                while (index < crossword.getWidth() && crossword.getNumbers()[index][i] != -1) {
-                    drawFilledBox(i, index, WORD_COLOR, g2d);
-                    index++;
-                }
+        if (i >= 0 && j >= 0 && !crossword.isBlock(j, i)) {
+            Slot slot = crossword.getSlotTable().getSlotAt(j, i, acrossSelected);
+            for (int position = 0; position < slot.getLength(); position++) {
+                drawFilledBox(slot.getCol(position), slot.getRow(position), WORD_COLOR, g2d);
             }
+            drawFilledBox(i, j, LETTER_COLOR, g2d);
         }
     }
 
@@ -209,14 +297,31 @@ public class CrosswordGraphics extends JPanel implements MouseListener, KeyListe
         repaint();
     }
 
+    /**
+     * Left/right make the template narrower/wider, up/down make it shorter/taller (shift changes the size by 5), S turns
+     * symmetry on/off
+     */
     private void keyTemplatePressed(KeyEvent e) {
-        if (e.getKeyCode() == KeyEvent.VK_LEFT) {
-            int newSize = Math.max(crossword.getWidth() - 1, Crossword.getMinSize());
-            crosswordMaker.newTemplate(newSize, newSize);
-        } else if (e.getKeyCode() == KeyEvent.VK_RIGHT) {
-            int newSize = Math.min(crossword.getWidth() + 1, Crossword.getMaxSize());
-            crosswordMaker.newTemplate(newSize, newSize);
+        if (e.getKeyCode() == KeyEvent.VK_S) {
+            isSymmetric = !isSymmetric;
+            repaint();
+            return;
         }
+        int step = e.isShiftDown() ? 5 : 1;
+        int newWidth = crossword.getWidth();
+        int newHeight = crossword.getHeight();
+        if (e.getKeyCode() == KeyEvent.VK_LEFT)
+            newWidth -= step;
+        else if (e.getKeyCode() == KeyEvent.VK_RIGHT)
+            newWidth += step;
+        else if (e.getKeyCode() == KeyEvent.VK_UP)
+            newHeight -= step;
+        else if (e.getKeyCode() == KeyEvent.VK_DOWN)
+            newHeight += step;
+        newWidth = Math.max(Crossword.getMinSize(), Math.min(newWidth, Crossword.getMaxSize()));
+        newHeight = Math.max(Crossword.getMinSize(), Math.min(newHeight, Crossword.getMaxSize()));
+        if (newWidth != crossword.getWidth() || newHeight != crossword.getHeight())
+            crosswordMaker.newTemplate(newWidth, newHeight);
     }
 
     private void keyChooseTemplatePressed(KeyEvent e) {
@@ -227,13 +332,23 @@ public class CrosswordGraphics extends JPanel implements MouseListener, KeyListe
     }
 
     private void keyFilePressed(KeyEvent e) {
-        if(selectedI != -1 && selectedJ != -1) {
+        // ctrl+z undoes the last letter edit, ctrl+y (or ctrl+shift+z) redoes it
+        if ((e.isControlDown() || e.isMetaDown()) && (e.getKeyCode() == KeyEvent.VK_Z || e.getKeyCode() == KeyEvent.VK_Y)) {
+            if (e.getKeyCode() == KeyEvent.VK_Y || e.isShiftDown())
+                crossword.redo();
+            else
+                crossword.undo();
+            if (selectedI != -1 && selectedJ != -1)
+                gui.changePanelInfo(getSelectedClueNum(), acrossSelected);
+            repaint();
+        } else if(selectedI != -1 && selectedJ != -1) {
+            repaintSelectedWord(); // only the old and new selected words (and the typed box in them) change
             char keyPressed = String.valueOf(e.getKeyChar()).toUpperCase().charAt(0);
-            if (Character.isLetter(keyPressed)) {
-                crossword.getLetters()[selectedJ][selectedI] = keyPressed;
+            if (Grid.isStorable(keyPressed)) { // other letters (eg. accented ones) can not be stored in a box
+                crossword.setLetter(selectedJ, selectedI, keyPressed);
                 selectNextLetter(acrossSelected, false);
             } else if (e.getKeyCode() == KeyEvent.VK_BACK_SPACE) {
-                crossword.getLetters()[selectedJ][selectedI] = '_';
+                crossword.setLetter(selectedJ, selectedI, '_');
                 selectPrevLetter(acrossSelected, false);
             } else if (e.getKeyCode() == KeyEvent.VK_UP)
                 selectPrevLetter(false, true);
@@ -245,7 +360,7 @@ public class CrosswordGraphics extends JPanel implements MouseListener, KeyListe
                 selectNextLetter(true, true);
 
             gui.changePanelInfo(getSelectedClueNum(), acrossSelected);
-            repaint();
+            repaintSelectedWord();
         }
     }
 
@@ -291,19 +406,19 @@ public class CrosswordGraphics extends JPanel implements MouseListener, KeyListe
         if (isAcross) {
             if (canJump) {
                 moveRight();
-                while (crossword.getNumbers()[selectedJ][selectedI] == -1) {
+                while (crossword.isBlock(selectedJ, selectedI)) {
                     moveRight();
                 }
-            } else if (selectedI != crossword.getWidth() - 1 && crossword.getNumbers()[selectedJ][selectedI + 1] != -1) {
+            } else if (selectedI != crossword.getWidth() - 1 && !crossword.isBlock(selectedJ, selectedI + 1)) {
                 selectedI++;
             }
         } else {
             if (canJump) {
                 moveDown();
-                while (crossword.getNumbers()[selectedJ][selectedI] == -1) {
+                while (crossword.isBlock(selectedJ, selectedI)) {
                     moveDown();
                 }
-            } else if (selectedJ != crossword.getHeight() - 1 && crossword.getNumbers()[selectedJ + 1][selectedI] != -1) {
+            } else if (selectedJ != crossword.getHeight() - 1 && !crossword.isBlock(selectedJ + 1, selectedI)) {
                 selectedJ++;
             }
         }
@@ -313,19 +428,19 @@ public class CrosswordGraphics extends JPanel implements MouseListener, KeyListe
         if (isAcross) {
             if (canJump) {
                 moveLeft();
-                while (crossword.getNumbers()[selectedJ][selectedI] == -1) {
+                while (crossword.isBlock(selectedJ, selectedI)) {
                     moveLeft();
                 }
-            } else if (selectedI != 0 && crossword.getNumbers()[selectedJ][selectedI - 1] != -1) {
+            } else if (selectedI != 0 && !crossword.isBlock(selectedJ, selectedI - 1)) {
                 selectedI--;
             }
         } else {
             if (canJump) {
                 moveUp();
-                while (crossword.getNumbers()[selectedJ][selectedI] == -1) {
+                while (crossword.isBlock(selectedJ, selectedI)) {
                     moveUp();
                 }
-            } else if (selectedJ != 0 && crossword.getNumbers()[selectedJ - 1][selectedI] != -1) {
+            } else if (selectedJ != 0 && !crossword.isBlock(selectedJ - 1, selectedI)) {
                 selectedJ--;
             }
         }
@@ -336,15 +451,17 @@ public class CrosswordGraphics extends JPanel implements MouseListener, KeyListe
         int selectedNum = crossword.getAcrossClues().get(selectedIndex).getNumber();
         if (!isAcross)
             selectedNum = crossword.getDownClues().get(selectedIndex).getNumber();
-        for (int i = 0; i < crossword.getHeight(); i++) {
-            for (int j = 0; j < crossword.getWidth(); j++) {
-                if (crossword.getNumbers()[j][i] == selectedNum) {
-                    selectedI = i;
-                    selectedJ = j;
-                    break;
-                }
-            }
-        }
+        int[] location = crossword.getNumberLocation(selectedNum);
+        selectedI = location[0];
+        selectedJ = location[1];
+        repaint();
+    }
+
+    /**
+     * Shows the letters of an autofill that is still running (null to stop showing them)
+     */
+    public void setPreviewGrid(Grid previewGrid){
+        this.previewGrid = previewGrid;
         repaint();
     }
 
@@ -358,19 +475,9 @@ public class CrosswordGraphics extends JPanel implements MouseListener, KeyListe
     private int getSelectedClueNum() {
         int selectedClueNum = -1;
         if (selectedI != -1 && selectedJ != -1) { // if a box is selected
-            int IChange = 0;
-            int JChange = 1;
-            if (acrossSelected) {
-                IChange = 1;
-                JChange = 0;
-            }
-            int i = selectedI;
-            int j = selectedJ;
-            while (i >= 0 && j >= 0 && crossword.getNumbers()[j][i] != -1) {
-                i -= IChange;
-                j -= JChange;
-            }
-            selectedClueNum = crossword.getNumber(j + JChange, i + IChange);
+            Slot slot = crossword.getSlotTable().getSlotAt(selectedJ, selectedI, acrossSelected);
+            if (slot != null)
+                selectedClueNum = slot.getNumber();
         }
         return selectedClueNum;
     }
@@ -396,30 +503,38 @@ public class CrosswordGraphics extends JPanel implements MouseListener, KeyListe
     private void mouseTemplateClicked(int mouseX, int mouseY) {
         int mouseI = mouseX / boxSize;
         int mouseJ = mouseY / boxSize;
-        if (crossword.getNumbers()[mouseJ][mouseI] == -1) {
-            crossword.setNumber(0, mouseJ, mouseI);
-            crossword.setNumber(0, (crossword.getWidth() - 1) - mouseJ, (crossword.getHeight() - 1) - mouseI);
-            if (mouseJ == (crossword.getWidth() - 1) - mouseJ && mouseI == (crossword.getHeight() - 1) - mouseI)
-                crossword.changeNumBoxesFilled(-1);
-            else
-                crossword.changeNumBoxesFilled(-2);
-        } else {
-            crossword.setNumber(-1, mouseJ, mouseI);
-            crossword.setNumber(-1, (crossword.getWidth() - 1) - mouseJ, (crossword.getHeight() - 1) - mouseI);
-            if (mouseJ == (crossword.getWidth() - 1) - mouseJ && mouseI == (crossword.getHeight() - 1) - mouseI)
-                crossword.changeNumBoxesFilled(1);
-            else
-                crossword.changeNumBoxesFilled(2);
+        int[][] boxes = {{mouseJ, mouseI}, {(crossword.getHeight() - 1) - mouseJ, (crossword.getWidth() - 1) - mouseI}};
+        if (!isSymmetric || (mouseJ == (crossword.getHeight() - 1) - mouseJ && mouseI == (crossword.getWidth() - 1) - mouseI))
+            boxes = new int[][]{boxes[0]}; // no mirror box, or the center box
+        boolean isBlock = !crossword.isBlock(mouseJ, mouseI);
+        String oldName = crossword.getName();
+        boolean wasCutOff = validator.getNumRegions() > 1;
+        int changedRow = mouseJ;
+        int numChanged = 0;
+        for (int[] box : boxes) {
+            if (crossword.isBlock(box[0], box[1]) != isBlock) {
+                changedRow = Math.min(changedRow, validator.setBlock(box[0], box[1], isBlock));
+                numChanged++;
+            }
         }
-        crossword.setNumbers();
+        crossword.setBlocks(boxes, isBlock);
+        crossword.changeNumBoxesFilled(isBlock ? numChanged : -numChanged);
         crossword.setTemplateName();
-        repaint();
+        // the numbers after the first changed box may shift and the short entry through it may start above it, the boxes
+        // before that stay the same (unless a region is cut off, which can be anywhere)
+        if (wasCutOff || validator.getNumRegions() > 1)
+            repaint();
+        else
+            repaint(0, startY + changedRow * boxSize, getWidth(), getHeight());
+        if (!crossword.getName().equals(oldName))
+            repaint(0, 0, getWidth(), startY);
     }
 
     private void mouseFileClicked(int mouseX, int mouseY) {
         int mouseI = mouseX / boxSize;
         int mouseJ = mouseY / boxSize;
         if(isSelectable(mouseI, mouseJ)) {
+            repaintSelectedWord();
             if (mouseI == selectedI && mouseJ == selectedJ) {
                 acrossSelected = !acrossSelected;
             } else {
@@ -427,13 +542,13 @@ public class CrosswordGraphics extends JPanel implements MouseListener, KeyListe
                 selectedJ = mouseJ;
             }
             gui.changePanelInfo(getSelectedClueNum(), acrossSelected);
-            repaint();
+            repaintSelectedWord();
         }
     }
 
     private boolean isSelectable(int mouseI, int mouseJ){
         boolean isSelectable = true;
-        if(crossword.getNumber(mouseJ, mouseI) == -1)
+        if(crossword.isBlock(mouseJ, mouseI))
             isSelectable = false;
         return isSelectable;
     }
@@ -1,24 +1,51 @@
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.swing.SwingUtilities;
 
 public class CrosswordMaker {
 
     private static final String TEMPLATES_FILE_PATH = "resources/crossword-templates.txt";
+    private static final long RATING_TIME_LIMIT = 2000; // milliseconds of sample fills per template rated
+    private static final int MAX_RATED_PER_START = 30; // templates rated in the background per start (see TemplateRater for the rest)
+    private static final int RATINGS_PER_SAVE = 10; // the templates file is saved once per this many ratings, and at the end
 
     private CrosswordReader crosswordReader;
     private ArrayList<Crossword> templates;
     private PDFWriter pdfWriter;
-    private WordFinder wordFinder;
+    private ExecutorService dictionaryExecutor;
+    private ExecutorService ratingExecutor; // rates templates at a low priority, so it does not slow down loading or autofill
+    private CompletableFuture<WordFinder> wordFinder; // completes once the 84000 word list is loaded (the 370000 word list is loaded after it)
     private Crossword currCrossword;
     private int currTemplateNum;
 
     private GUI gui;
 
     public void runApplication() {
+        loadWordFinder(); // read in words (in the background)
         this.gui = new GUI(this); // load Window
         readInTemplates();
         resetTemplateNames();
-        this.wordFinder = new WordFinder(); // read in words
+        rateTemplates(templates, MAX_RATED_PER_START);
+    }
+
+    private void loadWordFinder(){
+        dictionaryExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "dictionary-loader");
+            thread.setDaemon(true); // don't keep the application open
+            return thread;
+        });
+        this.wordFinder = WordFinder.loadInBackground(dictionaryExecutor);
+        ratingExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "template-rater");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
     }
 
     public void readInTemplates(){
@@ -76,6 +103,7 @@ public class CrosswordMaker {
     public void saveTemplate(){
         CrosswordWriter crosswordWriter = new CrosswordWriter();
         crosswordWriter.saveTemplates(templates, currCrossword, TEMPLATES_FILE_PATH);
+        rateTemplates(Collections.singletonList(currCrossword), 1);
     }
 
     public void saveFile(){
@@ -98,10 +126,65 @@ public class CrosswordMaker {
 
     private void resetTemplateNames(){
         for(int i = 0; i < templates.size(); i++){
-            templates.get(i).setTemplateName();
+            if(!templates.get(i).isRated()) // a rated template was named when it was rated
+                templates.get(i).setTemplateName();
         }
         CrosswordWriter crosswordWriter = new CrosswordWriter();
         crosswordWriter.saveTemplates(templates, null, TEMPLATES_FILE_PATH); // null means no new template
     }
 
+    /**
+     * Rates the templates that are not rated yet (in the background, once the dictionary is loaded), renaming them and
+     * saving the ratings every RATINGS_PER_SAVE templates so a rating is never worked out again
+     * @param toRate - the templates to rate if they are not rated yet
+     * @param maxToRate - the most templates to rate, the others are rated on a later start
+     */
+    private void rateTemplates(List<Crossword> toRate, int maxToRate){
+        ArrayList<Crossword> unrated = new ArrayList<Crossword>();
+        ArrayList<Crossword> copies = new ArrayList<Crossword>(); // the templates can be changed while they are rated
+        for(Crossword template : toRate){
+            if(!template.isRated() && unrated.size() < maxToRate){
+                unrated.add(template);
+                copies.add(new Crossword(template));
+            }
+        }
+        if(unrated.isEmpty())
+            return;
+        wordFinder.thenAcceptAsync(finder -> {
+            TemplateRater rater = new TemplateRater(finder);
+            ArrayList<Crossword> rated = new ArrayList<Crossword>();
+            ArrayList<Float> ratings = new ArrayList<Float>();
+            for(int i = 0; i < unrated.size(); i++){
+                rated.add(unrated.get(i));
+                ratings.add(rater.rate(copies.get(i), RATING_TIME_LIMIT));
+                if(rated.size() == RATINGS_PER_SAVE || i == unrated.size() - 1){
+                    saveRatings(new ArrayList<Crossword>(rated), new ArrayList<Float>(ratings));
+                    rated.clear();
+                    ratings.clear();
+                }
+            }
+        }, ratingExecutor);
+    }
+
+    /**
+     * Sets the ratings and names of the templates and saves the templates file once (on the Swing event thread)
+     */
+    private void saveRatings(List<Crossword> rated, List<Float> ratings){
+        SwingUtilities.invokeLater(() -> {
+            boolean isChanged = false;
+            for(int i = 0; i < rated.size(); i++){
+                Crossword template = rated.get(i);
+                if(!templates.contains(template) || template.isRated())
+                    continue;
+                template.setFillRating(ratings.get(i));
+                template.setTemplateName();
+                isChanged = true;
+            }
+            if(isChanged){
+                CrosswordWriter crosswordWriter = new CrosswordWriter();
+                crosswordWriter.saveTemplates(templates, null, TEMPLATES_FILE_PATH);
+            }
+        });
+    }
+
 }
@@ -12,7 +12,8 @@ import java.util.Scanner;
  *  Nate's Crossword  // the name of the crossword, template X: if a template where X is the template number
  *  15                // the width of the crossword
  *  15                // the height of the crossword
- *  18                // the number of boxes filled in the crossword (a greater boxes filled value indicates an easier to make crossword)
+ *  18 0.21           // the number of boxes filled in the crossword (a greater boxes filled value indicates an easier to make crossword)
+ *                    //   and the fill rating (see TemplateRater), left out if the template is not rated yet
  *  0000!0000!0000... // the number code: each 0 corresponds to an unfilled box, each ! corresponds to a filled box (the length of this code should be width*height)
  *  HOPE_CHAT_SWOR... // the letter code: each char corresponds to a letter written in ('_' if no letter added yet or box is filled) (length should be width*height)
  *  1. desire         // the 1 across clue
@@ -21,10 +22,10 @@ import java.util.Scanner;
  *  1. opposite of..  // the 1 down clue (if the clue number decreases that means we are on the down clues)
  *  ...
  *
- *  Note: the numbers and letters are read in left to right:
- *  eg. char 0: corresponds to number[0][0]
- *      char 14: corresponds to number[0][14]
- *      char 15: corresponds to number[1][0]
+ *  Note: the numbers and letters are read in left to right, one row after the other:
+ *  eg. char 0: corresponds to row 0, column 0
+ *      char 14: corresponds to row 0, column 14
+ *      char 15: corresponds to row 1, column 0 (for a 15 wide crossword)
  */
 
 public class CrosswordReader {
@@ -44,11 +45,13 @@ public class CrosswordReader {
                 String name = scanner.nextLine();
                 int width = Integer.parseInt(scanner.nextLine());
                 int height = Integer.parseInt(scanner.nextLine());
-                int numBoxesFilled = Integer.parseInt(scanner.nextLine());
-                int[][] numbers = setNumbers(width, height, scanner.nextLine());
+                String[] filled = scanner.nextLine().trim().split(" ");
+                int numBoxesFilled = Integer.parseInt(filled[0]);
+                Grid grid = new Grid(height, width);
+                setBlocks(grid, scanner.nextLine());
 
                 if(!isTemplate){ // only read in letters and clues if an actual crossword
-                    char[][] letters = setLetters(width, height, scanner.nextLine());
+                    setLetters(grid, scanner.nextLine());
 
                     ArrayList<Clue> acrossClues = new ArrayList<Clue>();
                     ArrayList<Clue> downClues = new ArrayList<Clue>();
@@ -66,12 +69,14 @@ public class CrosswordReader {
                         currentClues.add(nextClue);
                     }
 
-                    crosswordList.add(new Crossword(name, width, height, numBoxesFilled, numbers, letters, acrossClues, downClues));
+                    crosswordList.add(new Crossword(name, width, height, numBoxesFilled, grid, acrossClues, downClues));
                 }
 
                 else{ // if a template
-                    crosswordList.add(new Crossword(name, width, height, numBoxesFilled, numbers));
+                    crosswordList.add(new Crossword(name, width, height, numBoxesFilled, grid));
                 }
+                if(filled.length > 1)
+                    crosswordList.get(crosswordList.size() - 1).setFillRating(Float.parseFloat(filled[1]));
             }
             scanner.close();
         }
@@ -82,38 +87,26 @@ public class CrosswordReader {
     }
 
     /**
-     * Converts a string of "numbers" into the properly formatted array of across/down numbers
-     * @param width - width of the crossword
-     * @param height - height of the crossword
+     * Fills in the grid's boxes from a string of "numbers"
+     * @param grid - the empty grid of the crossword
      * @param numberCode - string of all "numbers", 0's (empty boxes) !'s  (filled boxes)
-     * @return - the multidimensional array of numbers (across/down)
      */
-    private int[][] setNumbers(int width, int height, String numberCode){
-        int[][] numbers = new int[width][height];
-        for(int i = 0; i < numberCode.length(); i++){
-            if(numberCode.charAt(i) == '!'){
-                numbers[i / width][i % height] = -1;
-            }
-            else{
-                numbers[i / width][i % height] = 0;
-            }
+    private void setBlocks(Grid grid, String numberCode){
+        for(int i = 0; i < numberCode.length() && i < grid.getNumBoxes(); i++){
+            grid.setBlock(i / grid.getNumCols(), i % grid.getNumCols(), numberCode.charAt(i) == '!');
         }
-        return numbers;
     }
 
     /**
-     * Converts a string of character into the properly formatted array of letters ('_' for unfilled letters)
-     * @param width - width of the crossword
-     * @param height - height of the crossword
+     * Writes the letters into the grid ('_' for unfilled letters)
+     * @param grid - the grid of the crossword
      * @param letterCode - the string of all letters
-     * @return - the multidimensional array of crossword letters
      */
-    private char[][] setLetters(int width, int height, String letterCode){
-        char[][] letters = new char[width][height];
-        for(int i = 0; i < letterCode.length(); i++){
-            letters[i / width][i % height] = letterCode.charAt(i);
+    private void setLetters(Grid grid, String letterCode){
+        for(int i = 0; i < letterCode.length() && i < grid.getNumBoxes(); i++){
+            if(!grid.isBlock(i / grid.getNumCols(), i % grid.getNumCols()))
+                grid.setLetter(i / grid.getNumCols(), i % grid.getNumCols(), letterCode.charAt(i));
         }
-        return letters;
     }
 
     /**
@@ -0,0 +1,120 @@
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+
+/**
+ *  CLASS: CrosswordReaderTest
+ *  PURPOSE: Checks that CrosswordReader reads templates and crosswords with and without the fill rating, and reads back
+ *           what CrosswordWriter saves (no GUI, exits with 1 if a check fails).
+ *  AUTHOR: Nathan Poppe
+ *
+ *  Usage: java CrosswordReaderTest
+ */
+public class CrosswordReaderTest {
+
+    private final static String TEMPLATES =
+            "3x3-Easy\n3\n3\n0\n000000000\n" + // not rated
+            "5x5-Hard\n5\n5\n2 0.75\n!00000000000000000000000!\n"; // rated
+    private final static String RATED_CROSSWORD =
+            "Mine\n3\n3\n0 0.5\n000000000\nCATAREBE_\n1. feline\n4. exist\n5. wager\n1. taxi\n2. a letter\n3. a tea";
+    private final static String CROSSWORD =
+            "Yours\n3\n3\n0\n000000000\nCATAREBE_\n1. feline\n4. exist\n5. wager\n1. taxi\n2. a letter\n3. a tea";
+
+    private static int numChecks;
+    private static int numFailed;
+
+    public static void main(String[] args) throws IOException {
+        File folder = File.createTempFile("crosswords", "");
+        folder.delete();
+        folder.mkdirs();
+        CrosswordReader reader = new CrosswordReader();
+
+        ArrayList<Crossword> templates = reader.readInCrosswords(write(folder, "templates.txt", TEMPLATES), true);
+        check(templates.size() == 2, "2 templates read");
+        if(templates.size() == 2){
+            checkUnratedTemplate(templates.get(0), "template without a rating");
+            checkRatedTemplate(templates.get(1), "template with a rating");
+
+            // saved and read back, each template keeps its rating (or lack of one)
+            String savedPath = new File(folder, "saved-templates.txt").getPath();
+            new CrosswordWriter().saveTemplates(templates, null, savedPath);
+            ArrayList<Crossword> saved = reader.readInCrosswords(savedPath, true);
+            check(saved.size() == 2, "2 saved templates read");
+            if(saved.size() == 2){
+                checkUnratedTemplate(saved.get(0), "saved template without a rating");
+                checkRatedTemplate(saved.get(1), "saved template with a rating");
+            }
+        }
+
+        ArrayList<Crossword> rated = reader.readInCrosswords(write(folder, "Mine.txt", RATED_CROSSWORD), false);
+        check(rated.size() == 1 && rated.get(0).isRated() && rated.get(0).getFillRating() == 0.5f, "crossword with a rating");
+        ArrayList<Crossword> unrated = reader.readInCrosswords(write(folder, "Yours.txt", CROSSWORD), false);
+        check(unrated.size() == 1 && !unrated.get(0).isRated(), "crossword without a rating");
+        if(rated.size() == 1 && unrated.size() == 1){
+            checkCrossword(rated.get(0), "crossword with a rating");
+            checkCrossword(unrated.get(0), "crossword without a rating");
+
+            // saved and read back
+            rated.get(0).setName("Mine-saved");
+            new CrosswordWriter().saveCrossword(rated.get(0), folder.getPath() + "/");
+            ArrayList<Crossword> saved = reader.readInCrosswords(new File(folder, "Mine-saved.txt").getPath(), false);
+            check(saved.size() == 1 && saved.get(0).getFillRating() == 0.5f, "saved crossword keeps its rating");
+            if(saved.size() == 1)
+                checkCrossword(saved.get(0), "saved crossword");
+        }
+
+        for(File file : folder.listFiles())
+            file.delete();
+        folder.delete();
+        System.out.println((numChecks - numFailed) + " of " + numChecks + " checks passed");
+        System.exit(numFailed == 0 ? 0 : 1);
+    }
+
+    private static void checkUnratedTemplate(Crossword template, String name){
+        check(template.getName().equals("3x3-Easy"), name + ": name");
+        check(template.getWidth() == 3 && template.getHeight() == 3, name + ": size");
+        check(template.getNumBoxesFilled() == 0 && template.getGrid().countBlocks() == 0, name + ": filled boxes");
+        check(!template.isRated(), name + ": not rated");
+    }
+
+    private static void checkRatedTemplate(Crossword template, String name){
+        check(template.getName().equals("5x5-Hard"), name + ": name");
+        check(template.getWidth() == 5 && template.getHeight() == 5, name + ": size");
+        check(template.getNumBoxesFilled() == 2 && template.isBlock(0, 0) && template.isBlock(4, 4) && template.getGrid().countBlocks() == 2, name + ": filled boxes");
+        check(template.isRated() && template.getFillRating() == 0.75f, name + ": rating");
+    }
+
+    private static void checkCrossword(Crossword crossword, String name){
+        check(crossword.getWidth() == 3 && crossword.getHeight() == 3, name + ": size");
+        String letters = "";
+        for(int row = 0; row < 3; row++){
+            for(int col = 0; col < 3; col++){
+                letters += crossword.getLetter(row, col);
+            }
+        }
+        check(letters.equals("CATAREBE" + Grid.NO_LETTER), name + ": letters " + letters);
+        check(crossword.getAcrossClues().size() == 3 && crossword.getDownClues().size() == 3, name + ": 3 across and 3 down clues");
+        if(crossword.getAcrossClues().size() == 3 && crossword.getDownClues().size() == 3){
+            check(crossword.getAcrossClues().get(2).getNumber() == 5 && crossword.getAcrossClues().get(2).getDescription().equals("wager"), name + ": 5 across");
+            check(crossword.getDownClues().get(0).getNumber() == 1 && crossword.getDownClues().get(0).getDescription().equals("taxi"), name + ": 1 down");
+        }
+    }
+
+    private static String write(File folder, String fileName, String text) throws IOException {
+        File file = new File(folder, fileName);
+        try(FileWriter writer = new FileWriter(file)){
+            writer.write(text);
+        }
+        return file.getPath();
+    }
+
+    private static void check(boolean isPassed, String name){
+        numChecks++;
+        if(!isPassed){
+            numFailed++;
+            System.out.println("FAILED: " + name);
+        }
+    }
+
+}
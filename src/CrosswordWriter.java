@@ -6,8 +6,15 @@ public class CrosswordWriter {
     private final static String SAVE_FILE_LOCATION = "resources/crosswords/";
 
     public void saveCrossword(Crossword crossword){
+        saveCrossword(crossword, SAVE_FILE_LOCATION);
+    }
+
+    /**
+     * @param directory - the folder to save in, ending with a '/'
+     */
+    public void saveCrossword(Crossword crossword, String directory){
         try{
-            FileWriter fileWriter = new FileWriter(SAVE_FILE_LOCATION + crossword.getName() + ".txt");
+            FileWriter fileWriter = new FileWriter(directory + crossword.getName() + ".txt");
             fileWriter.write(crossword.getSaveString());
             fileWriter.close();
         }
@@ -20,22 +27,41 @@ public class CrosswordWriter {
         boolean templateInserted = false;
         int count = 0;
         while(count < templates.size() && !templateInserted){
-            if(newTemplate.getWidth() < templates.get(count).getWidth()){
+            int sizeOrder = compareSizes(newTemplate, templates.get(count));
+            if(sizeOrder < 0){
                 templates.add(count, newTemplate);
                 templateInserted = true;
             }
-            else if(newTemplate.getWidth() == templates.get(count).getWidth()){
+            else if(sizeOrder == 0){
                 if(newTemplate.getNumBoxesFilled() >= templates.get(count).getNumBoxesFilled()){
                     templates.add(count, newTemplate);
                     templateInserted = true;
                 }
             }
-            else if(count == templates.size() - 1) {
-                templates.add(newTemplate);
-                templateInserted = true;
-            }
             count++;
         }
+        if(!templateInserted) // larger than every template (or there are none)
+            templates.add(newTemplate);
+    }
+
+    /**
+     * Templates are ordered by width, then height
+     * @return - <0 if crossword1 comes first, 0 if they are the same size, >0 if crossword2 comes first
+     */
+    private int compareSizes(Crossword crossword1, Crossword crossword2){
+        if(crossword1.getWidth() != crossword2.getWidth())
+            return crossword1.getWidth() - crossword2.getWidth();
+        return crossword1.getHeight() - crossword2.getHeight();
+    }
+
+    /**
+     * Inserts many new templates (eg. from TemplateGenerator) in order, then saves every template once
+     */
+    public void addTemplates(ArrayList<Crossword> templates, ArrayList<Crossword> newTemplates, String fileName){
+        for(Crossword newTemplate : newTemplates){
+            insertTemplate(templates, newTemplate);
+        }
+        saveTemplates(templates, null, fileName);
     }
 
     public void saveTemplates(ArrayList<Crossword> templates, Crossword newTemplate, String fileName){
@@ -0,0 +1,409 @@
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Scanner;
+
+/**
+ *  CLASS: DictionaryCompiler
+ *  PURPOSE: Compiles text word lists (one word per line) into the binary dictionary format that WordArena and WordIndex
+ *           query in place.
+ *  AUTHOR: Nathan Poppe
+ *
+ *  All word lists are merged into one set of words: a word that is in several lists is stored once, together with a
+ *  membership bitset per list (bit n of list d is set if word n is in list d).
+ *
+ *  The text files stay the source of truth: the binary file remembers the size and modification time of every text file it
+ *  was compiled from and is rebuilt whenever they no longer match. It can also be compiled ahead of time with:
+ *      java DictionaryCompiler resources/words.dict resources/84000-words.txt resources/370000-words.txt
+ *
+ *  BINARY FILE LAYOUT: (all words of one length form a "bucket", a word's ordinal is its position in sorted order)
+ *  header:   magic, version, number of word lists, max word length, then the length and last modified time of each list
+ *  index:    for every length 0 ... max length: numWords, lettersOffset, membersOffset, trieOffset, numTrieNodes, bitsOffset,
+ *            masksOffset and one unused int
+ *  letters:  numWords * length bytes, every word stored as ISO-8859-1 chars at ordinal * length (fixed stride)
+ *  members:  one bitset per word list
+ *  trie:     levelStart[length + 1], childStart[numTrieNodes + 1], firstOrdinal[numTrieNodes] (see WordTrie)
+ *  bits:     letter bitsets [position][letter] (see WordIndex)
+ *  masks:    the alternating bitset (words whose letters alternate between vowels and consonants), then the vowel mask of
+ *            every word as an int (bit p set if the letter at position p is a vowel)
+ */
+public class DictionaryCompiler {
+
+    final static int MAGIC = 0x43574431; // "CWD1"
+    final static int VERSION = 3;
+    final static int HEADER_SIZE = 16; // not counting the 16 bytes per word list
+    final static int INDEX_ENTRY_SIZE = 32;
+    final static int NUM_LETTERS = 26;
+    final static int OTHER_LETTER = NUM_LETTERS; // bucket for any char outside of a-z (eg. accented letters)
+    final static int MAX_WORD_LENGTH = 31; // so the vowel mask of a word fits into an int
+
+    public static void main(String[] args) {
+        if(args.length < 2){
+            System.out.println("Usage: java DictionaryCompiler <binary file> <word list> ...");
+            return;
+        }
+        DictionaryCompiler dictionaryCompiler = new DictionaryCompiler();
+        dictionaryCompiler.compile(new File(args[0]), Arrays.copyOfRange(args, 1, args.length));
+    }
+
+    /**
+     * Maps the binary dictionary for the given text word lists, compiling it first if it is missing or stale
+     * @param binaryFileName - the path to the binary dictionary
+     * @param textFileNames - the paths to the text word lists
+     * @return - the binary dictionary (an in memory copy if the binary file could not be written)
+     */
+    public ByteBuffer loadDictionary(String binaryFileName, String... textFileNames){
+        File binaryFile = new File(binaryFileName);
+        if(!isUpToDate(binaryFile, textFileNames))
+            return compile(binaryFile, textFileNames);
+        try{
+            return mapFile(binaryFile);
+        }
+        catch(IOException e){
+            return compile(binaryFile, textFileNames);
+        }
+    }
+
+    static int getIndexStart(int numLists){
+        return HEADER_SIZE + 16 * numLists;
+    }
+
+    /**
+     * Checks the binary file header against the current size and modification time of the text files
+     */
+    private boolean isUpToDate(File binaryFile, String[] textFileNames){
+        if(!binaryFile.exists() || binaryFile.length() < getIndexStart(textFileNames.length))
+            return false;
+        try(RandomAccessFile file = new RandomAccessFile(binaryFile, "r")){
+            if(file.readInt() != MAGIC || file.readInt() != VERSION || file.readInt() != textFileNames.length)
+                return false;
+            file.readInt(); // max word length
+            for(int i = 0; i < textFileNames.length; i++){
+                File textFile = new File(textFileNames[i]);
+                if(file.readLong() != textFile.length() || file.readLong() != textFile.lastModified())
+                    return false;
+            }
+            return true;
+        }
+        catch(IOException e){
+            return false;
+        }
+    }
+
+    private ByteBuffer mapFile(File binaryFile) throws IOException {
+        try(RandomAccessFile file = new RandomAccessFile(binaryFile, "r")){
+            return file.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, file.length());
+        }
+    }
+
+    /**
+     * Compiles the text word lists and saves them as the binary file
+     * @return - the compiled dictionary
+     */
+    public ByteBuffer compile(File binaryFile, String... textFileNames){
+        HashMap<String, Integer> wordLists = new HashMap<String, Integer>(); // word -> bit d set if in word list d
+        for(int i = 0; i < textFileNames.length; i++){
+            readInWords(new File(textFileNames[i]), i, wordLists);
+        }
+        String[][] words = groupByLength(wordLists);
+        int numLists = textFileNames.length;
+
+        ByteBuffer buffer = ByteBuffer.allocate(getFileSize(words, numLists));
+        buffer.putInt(MAGIC);
+        buffer.putInt(VERSION);
+        buffer.putInt(numLists);
+        buffer.putInt(words.length - 1);
+        for(int i = 0; i < numLists; i++){
+            File textFile = new File(textFileNames[i]);
+            buffer.putLong(textFile.length());
+            buffer.putLong(textFile.lastModified());
+        }
+
+        int indexStart = getIndexStart(numLists);
+        int offset = indexStart + words.length * INDEX_ENTRY_SIZE;
+        for(int length = 0; length < words.length; length++){
+            int indexEntry = indexStart + length * INDEX_ENTRY_SIZE;
+            byte[][] letters = encode(words[length]);
+            buffer.putInt(indexEntry, letters.length);
+
+            buffer.putInt(indexEntry + 4, offset);
+            offset = align(writeLetters(buffer, offset, letters));
+
+            buffer.putInt(indexEntry + 8, offset);
+            offset = writeMembers(buffer, offset, words[length], wordLists, numLists);
+
+            int[] diff = getFirstDifferences(letters);
+            buffer.putInt(indexEntry + 12, offset);
+            buffer.putInt(indexEntry + 16, getNumTrieNodes(diff, length));
+            offset = writeTrie(buffer, offset, diff, length);
+
+            buffer.putInt(indexEntry + 20, offset);
+            offset = writeBitsets(buffer, offset, letters, length);
+
+            buffer.putInt(indexEntry + 24, offset);
+            offset = writeMasks(buffer, offset, letters, length);
+        }
+
+        saveFile(buffer, binaryFile);
+        buffer.clear();
+        return buffer;
+    }
+
+    private void readInWords(File textFile, int listNum, HashMap<String, Integer> wordLists){
+        CharsetEncoder encoder = StandardCharsets.ISO_8859_1.newEncoder();
+        try{
+            Scanner scanner = new Scanner(textFile, "UTF-8");
+            while (scanner.hasNextLine()){
+                String word = scanner.nextLine();
+                if(word.length() <= MAX_WORD_LENGTH && encoder.canEncode(word)) // otherwise it cannot be stored in one byte per letter
+                    wordLists.merge(word, 1 << listNum, (a, b) -> a | b);
+            }
+            scanner.close();
+        }
+        catch(FileNotFoundException e){
+            System.out.println("Could not read in words!");
+        }
+    }
+
+    /**
+     * Splits the words into one sorted array per word length
+     * @param wordLists - every word of every word list
+     * @return - the words grouped by length, words[length][ordinal]
+     */
+    private String[][] groupByLength(HashMap<String, Integer> wordLists){
+        int maxLength = 0;
+        for(String word : wordLists.keySet()){
+            maxLength = Math.max(maxLength, word.length());
+        }
+        int[] counts = new int[maxLength + 1];
+        for(String word : wordLists.keySet()){
+            counts[word.length()]++;
+        }
+        String[][] words = new String[maxLength + 1][];
+        for(int length = 0; length <= maxLength; length++){
+            words[length] = new String[counts[length]];
+            counts[length] = 0;
+        }
+        for(String word : wordLists.keySet()){
+            words[word.length()][counts[word.length()]++] = word;
+        }
+        for(int length = 0; length <= maxLength; length++){
+            Arrays.sort(words[length]);
+        }
+        return words;
+    }
+
+    private byte[][] encode(String[] words){
+        byte[][] letters = new byte[words.length][];
+        for(int i = 0; i < words.length; i++){
+            letters[i] = words[i].getBytes(StandardCharsets.ISO_8859_1);
+        }
+        return letters;
+    }
+
+    private int getFileSize(String[][] words, int numLists){
+        long size = getIndexStart(numLists) + words.length * INDEX_ENTRY_SIZE;
+        for(int length = 0; length < words.length; length++){
+            int numWords = words[length].length;
+            int numLongs = getNumLongs(numWords);
+            int numTrieNodes = getNumTrieNodes(getFirstDifferences(encode(words[length])), length);
+            size = align(size + (long)numWords * length);
+            size += 8L * numLongs * numLists;
+            size += 4L * ((length + 1) + (numTrieNodes + 1) + numTrieNodes);
+            size = align(size);
+            size += 8L * numLongs * length * (NUM_LETTERS + 1);
+            size = align(size + 8L * numLongs + 4L * numWords);
+        }
+        if(size > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Word list is too large to compile.");
+        return (int)size;
+    }
+
+    private int writeLetters(ByteBuffer buffer, int offset, byte[][] words){
+        for(int i = 0; i < words.length; i++){
+            buffer.position(offset);
+            buffer.put(words[i]);
+            offset += words[i].length;
+        }
+        return offset;
+    }
+
+    /**
+     * Writes one bitset per word list with the bits of the words that are in it
+     * @return - the offset after the bitsets
+     */
+    private int writeMembers(ByteBuffer buffer, int offset, String[] words, HashMap<String, Integer> wordLists, int numLists){
+        int numLongs = getNumLongs(words.length);
+        long[] bits = new long[numLongs * numLists];
+        for(int ordinal = 0; ordinal < words.length; ordinal++){
+            int lists = wordLists.get(words[ordinal]);
+            for(int listNum = 0; listNum < numLists; listNum++){
+                if((lists & (1 << listNum)) != 0)
+                    bits[listNum * numLongs + (ordinal >>> 6)] |= 1L << ordinal;
+            }
+        }
+        buffer.position(offset);
+        buffer.asLongBuffer().put(bits);
+        return offset + 8 * bits.length;
+    }
+
+    /**
+     * Returns, for each word, the first index where it differs from the previous word (0 for the first word)
+     */
+    private int[] getFirstDifferences(byte[][] words){
+        int[] diff = new int[words.length];
+        for(int i = 1; i < words.length; i++){
+            int count = 0;
+            while(words[i][count] == words[i - 1][count]){
+                count++;
+            }
+            diff[i] = count;
+        }
+        return diff;
+    }
+
+    private int getNumTrieNodes(int[] diff, int length){
+        int numNodes = 0;
+        for(int i = 0; i < diff.length; i++){
+            numNodes += length - diff[i]; // word i adds one node on every level from its first difference down
+        }
+        return numNodes;
+    }
+
+    /**
+     * Writes the level ordered trie of one bucket (see WordTrie). A new node starts at depth d for every word that
+     * differs from the previous word at or before position d.
+     * @return - the offset after the trie
+     */
+    private int writeTrie(ByteBuffer buffer, int offset, int[] diff, int length){
+        int numNodes = getNumTrieNodes(diff, length);
+        int levelStartOffset = offset;
+        int childStartOffset = levelStartOffset + 4 * (length + 1);
+        int firstOrdinalOffset = childStartOffset + 4 * (numNodes + 1);
+
+        int node = 0;
+        for(int depth = 0; depth < length; depth++){
+            buffer.putInt(levelStartOffset + 4 * depth, node);
+            int parent = depth == 0 ? -1 : buffer.getInt(levelStartOffset + 4 * (depth - 1)) - 1;
+            for(int i = 0; i < diff.length; i++){
+                boolean newParent = depth > 0 && diff[i] <= depth - 1;
+                if(newParent)
+                    parent++; // word i starts a new node on the previous level
+                if(diff[i] <= depth){
+                    if(newParent)
+                        buffer.putInt(childStartOffset + 4 * parent, node); // first child of its parent
+                    buffer.putInt(firstOrdinalOffset + 4 * node, i);
+                    node++;
+                }
+            }
+        }
+        buffer.putInt(levelStartOffset + 4 * length, node);
+        int firstLeaf = length == 0 ? 0 : buffer.getInt(levelStartOffset + 4 * (length - 1));
+        for(int leaf = firstLeaf; leaf <= numNodes; leaf++){
+            buffer.putInt(childStartOffset + 4 * leaf, numNodes); // leaves have no children
+        }
+        return align(firstOrdinalOffset + 4 * numNodes);
+    }
+
+    /**
+     * Writes the letter bitsets of one bucket (see WordIndex)
+     * @return - the offset after the bitsets
+     */
+    private int writeBitsets(ByteBuffer buffer, int offset, byte[][] words, int length){
+        int numLongs = getNumLongs(words.length);
+        long[] bits = new long[numLongs * length * (NUM_LETTERS + 1)];
+        for(int ordinal = 0; ordinal < words.length; ordinal++){
+            long bit = 1L << ordinal;
+            int longIndex = ordinal >>> 6;
+            for(int position = 0; position < length; position++){
+                char c = (char)(words[ordinal][position] & 0xFF);
+                bits[(position * (NUM_LETTERS + 1) + getLetterIndex(c)) * numLongs + longIndex] |= bit;
+            }
+        }
+        buffer.position(offset);
+        buffer.asLongBuffer().put(bits);
+        return offset + 8 * bits.length;
+    }
+
+    /**
+     * Writes the alternating bitset and the vowel mask of every word of one bucket (see WordArena)
+     * @return - the offset after the masks
+     */
+    private int writeMasks(ByteBuffer buffer, int offset, byte[][] words, int length){
+        int numLongs = getNumLongs(words.length);
+        long[] alternating = new long[numLongs];
+        int[] masks = new int[words.length];
+        for(int ordinal = 0; ordinal < words.length; ordinal++){
+            masks[ordinal] = getVowelMask(words[ordinal]);
+            if(isAlternatingMask(masks[ordinal], length))
+                alternating[ordinal >>> 6] |= 1L << ordinal;
+        }
+        buffer.position(offset);
+        buffer.asLongBuffer().put(alternating);
+        offset += 8 * numLongs;
+        buffer.position(offset);
+        buffer.asIntBuffer().put(masks);
+        return align(offset + 4 * masks.length);
+    }
+
+    private int getVowelMask(byte[] word){
+        int mask = 0;
+        for(int position = 0; position < word.length; position++){
+            if(WordFinder.isVowel((char)(word[position] & 0xFF)))
+                mask |= 1 << position;
+        }
+        return mask;
+    }
+
+    /**
+     * Checks if the mask is 0101... or 1010... (a word of at least two letters that alternates between vowels and consonants)
+     */
+    static boolean isAlternatingMask(int mask, int length){
+        int vowelsAtEvenPositions = 0x55555555 & ((1 << length) - 1);
+        int vowelsAtOddPositions = 0xAAAAAAAA & ((1 << length) - 1);
+        return length > 1 && (mask == vowelsAtEvenPositions || mask == vowelsAtOddPositions);
+    }
+
+    private void saveFile(ByteBuffer buffer, File binaryFile){
+        File tempFile = new File(binaryFile.getPath() + ".tmp");
+        try(FileChannel channel = new RandomAccessFile(tempFile, "rw").getChannel()){
+            channel.truncate(0);
+            buffer.clear();
+            while(buffer.hasRemaining()){
+                channel.write(buffer);
+            }
+        }
+        catch(IOException e){
+            System.out.println("Could not save dictionary: " + binaryFile.getPath());
+            return;
+        }
+        if(!tempFile.renameTo(binaryFile) && !(binaryFile.delete() && tempFile.renameTo(binaryFile)))
+            System.out.println("Could not save dictionary: " + binaryFile.getPath());
+    }
+
+    static int getNumLongs(int numWords){
+        return (numWords + 63) >>> 6;
+    }
+
+    static int getLetterIndex(char c){
+        if(c >= 'a' && c <= 'z')
+            return c - 'a';
+        return OTHER_LETTER;
+    }
+
+    private static long align(long offset){
+        return (offset + 7) & ~7L;
+    }
+
+    private static int align(int offset){
+        return (offset + 7) & ~7;
+    }
+
+}
@@ -0,0 +1,116 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ *  CLASS: DictionaryCompilerTest
+ *  PURPOSE: Checks that word lists compiled by DictionaryCompiler read back the same (no GUI, exits with 1 if a check fails).
+ *  AUTHOR: Nathan Poppe
+ *
+ *  Usage: java DictionaryCompilerTest
+ *  Two small word lists are compiled into a temporary binary file, then every word, its list memberships and a few
+ *  pattern searches are read back through WordArena and WordIndex, from the compiled buffer and from the mapped file.
+ *  Changing a list must make loadDictionary compile it again.
+ */
+public class DictionaryCompilerTest {
+
+    private static int numChecks;
+    private static int numFailed;
+
+    public static void main(String[] args) throws IOException {
+        File folder = File.createTempFile("dictionary", "");
+        folder.delete();
+        folder.mkdirs();
+        File binaryFile = new File(folder, "words.dict");
+        File regList = new File(folder, "reg-words.txt");
+        File longList = new File(folder, "long-words.txt");
+        String tooLong = "abcdefghijklmnopqrstuvwxyzabcdefg"; // longer than MAX_WORD_LENGTH
+        writeWords(regList, "cat", "dog", "bird", "ape", "a");
+        writeWords(longList, "dog", "zebra", "cat", "\u00e9clair", "ox", tooLong, "\u65e5\u672c"); // the last can not be one byte per letter
+
+        // word --> the lists it should be in (bit 0: reg, bit 1: long)
+        HashMap<String, Integer> expected = new HashMap<String, Integer>();
+        for(String word : Arrays.asList("cat", "dog", "bird", "ape", "a"))
+            expected.merge(word, 1, (a, b) -> a | b);
+        for(String word : Arrays.asList("dog", "zebra", "cat", "\u00e9clair", "ox"))
+            expected.merge(word, 2, (a, b) -> a | b);
+
+        DictionaryCompiler compiler = new DictionaryCompiler();
+        ByteBuffer compiled = compiler.loadDictionary(binaryFile.getPath(), regList.getPath(), longList.getPath());
+        check(binaryFile.exists(), "the binary file is written");
+        checkWords(new WordArena(compiled), expected, "compiled");
+        checkWords(new WordArena(compiler.loadDictionary(binaryFile.getPath(), regList.getPath(), longList.getPath())), expected, "mapped");
+
+        WordIndex wordIndex = new WordIndex(new WordArena(compiler.loadDictionary(binaryFile.getPath(), regList.getPath(), longList.getPath())));
+        check(getWords(wordIndex.findWords(0, "___", false)).equals(Arrays.asList("ape", "cat", "dog")), "reg list 3 letter words");
+        check(getWords(wordIndex.findWords(1, "___", false)).equals(Arrays.asList("cat", "dog")), "long list 3 letter words");
+        check(getWords(wordIndex.findWords(1, "z___a", false)).equals(Arrays.asList("zebra")), "pattern z___a");
+        check(getWords(wordIndex.findWords(0, "@__", false)).equals(Arrays.asList("ape")), "pattern @__");
+        check(wordIndex.findWords(0, "zebra", false).size() == 0, "a word of the other list is not found");
+
+        // a changed list makes the binary file stale
+        writeWords(regList, "cat", "dog", "bird", "ape", "a", "emu");
+        regList.setLastModified(regList.lastModified() + 2000);
+        expected.merge("emu", 1, (a, b) -> a | b);
+        checkWords(new WordArena(compiler.loadDictionary(binaryFile.getPath(), regList.getPath(), longList.getPath())), expected, "recompiled");
+
+        for(File file : folder.listFiles())
+            file.delete();
+        folder.delete();
+        System.out.println((numChecks - numFailed) + " of " + numChecks + " checks passed");
+        System.exit(numFailed == 0 ? 0 : 1);
+    }
+
+    /**
+     * Checks that the dictionary holds exactly the expected words, sorted, each in the expected lists
+     */
+    private static void checkWords(WordArena wordArena, HashMap<String, Integer> expected, String name){
+        int numWords = 0;
+        for(int length = 0; length <= wordArena.getMaxLength(); length++){
+            String previous = null;
+            for(int ordinal = 0; ordinal < wordArena.getNumWords(length); ordinal++){
+                String word = wordArena.getWord(length, ordinal);
+                Integer lists = expected.get(word);
+                check(lists != null, name + ": " + word + " is a word");
+                check(previous == null || previous.compareTo(word) < 0, name + ": " + word + " is sorted");
+                if(lists != null){
+                    check(wordArena.isMember(0, length, ordinal) == ((lists & 1) != 0), name + ": " + word + " in the reg list");
+                    check(wordArena.isMember(1, length, ordinal) == ((lists & 2) != 0), name + ": " + word + " in the long list");
+                }
+                previous = word;
+                numWords++;
+            }
+        }
+        check(numWords == expected.size(), name + ": " + numWords + " words, expected " + expected.size());
+    }
+
+    private static List<String> getWords(WordMatches matches){
+        ArrayList<String> words = new ArrayList<String>();
+        for(int i = 0; i < matches.size(); i++){
+            words.add(matches.getWord(i));
+        }
+        return words;
+    }
+
+    private static void writeWords(File file, String... words) throws IOException {
+        try(PrintWriter writer = new PrintWriter(file, "UTF-8")){
+            for(String word : words){
+                writer.println(word);
+            }
+        }
+    }
+
+    private static void check(boolean isPassed, String name){
+        numChecks++;
+        if(!isPassed){
+            numFailed++;
+            System.out.println("FAILED: " + name);
+        }
+    }
+
+}
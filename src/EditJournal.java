@@ -0,0 +1,117 @@
+
+/**
+ *  CLASS: EditJournal
+ *  PURPOSE: Remembers the letter edits made to a crossword so they can be undone and redone.
+ *  AUTHOR: Nathan Poppe
+ *
+ *  Every changed box is one int in a ring buffer: the box (row * numCols + col), its old and new letter codes (see Grid)
+ *  and a bit marking the first change of an edit. An edit (a key press, a word fill, an autofill) is undone and redone as a
+ *  whole, only touching the boxes it changed. Once the buffer is full the oldest edits are forgotten, so a long session
+ *  never uses more than the buffer.
+ */
+public class EditJournal {
+
+    private final static int MIN_CAPACITY = 1 << 14; // changed boxes remembered
+    private final static int START_BIT = 1 << 10; // the first change of an edit
+    private final static int BOX_SHIFT = 11; // bits 0-4: new code, 5-9: old code, 10: start bit, 11-31: box
+
+    private int capacity; // a power of 2
+    private int[] changes; // only made once something changes (most copies of a crossword are never edited)
+    private long first; // the oldest remembered change (changes are counted from the start, the buffer index is % capacity)
+    private long current; // the changes before current are done, the ones from current to last were undone
+    private long last;
+    private int depth; // the number of begin() calls without an end()
+    private boolean isEditStarted; // a change was recorded since begin()
+
+    /**
+     * @param numBoxes - the number of boxes of the crossword, the buffer always holds a few edits of every box
+     */
+    public EditJournal(int numBoxes){
+        this.capacity = Math.max(MIN_CAPACITY, Integer.highestOneBit(Math.max(1, numBoxes)) * 4);
+    }
+
+    /**
+     * Groups the changes until the matching end() into one edit (calls can be nested)
+     */
+    public void begin(){
+        if(depth == 0)
+            isEditStarted = false;
+        depth++;
+    }
+
+    public void end(){
+        depth = Math.max(0, depth - 1);
+    }
+
+    /**
+     * Records a changed box. The edits that were undone can no longer be redone.
+     * @param box - row * numCols + col
+     * @param oldCode - the letter code before the change
+     * @param newCode - the letter code after the change
+     */
+    public void record(int box, int oldCode, int newCode){
+        if(oldCode == newCode)
+            return;
+        if(changes == null)
+            changes = new int[capacity];
+        int change = box << BOX_SHIFT | oldCode << 5 | newCode;
+        if(depth == 0 || !isEditStarted)
+            change |= START_BIT;
+        isEditStarted = true;
+        if(current - first == capacity){
+            // forget the oldest edit
+            do{
+                first++;
+            } while(first < current && (changes[getIndex(first)] & START_BIT) == 0);
+        }
+        changes[getIndex(current)] = change;
+        current++;
+        last = current;
+    }
+
+    /**
+     * Undoes the last edit
+     * @param grid - the grid the edits were made to
+     * @return - false if there is nothing to undo
+     */
+    public boolean undo(Grid grid){
+        if(current == first)
+            return false;
+        int change;
+        do{
+            current--;
+            change = changes[getIndex(current)];
+            grid.setLetterCode(change >>> BOX_SHIFT, change >> 5 & 31);
+        } while(current > first && (change & START_BIT) == 0);
+        return true;
+    }
+
+    /**
+     * Redoes the last undone edit
+     * @param grid - the grid the edits were made to
+     * @return - false if there is nothing to redo
+     */
+    public boolean redo(Grid grid){
+        if(current == last)
+            return false;
+        do{
+            int change = changes[getIndex(current)];
+            grid.setLetterCode(change >>> BOX_SHIFT, change & 31);
+            current++;
+        } while(current < last && (changes[getIndex(current)] & START_BIT) == 0);
+        return true;
+    }
+
+    /**
+     * Forgets every edit (eg. once the blocks change, the boxes of the old edits may no longer hold letters)
+     */
+    public void clear(){
+        first = current;
+        last = current;
+    }
+
+    private int getIndex(long change){
+        return (int)(change & (capacity - 1));
+    }
+
+}
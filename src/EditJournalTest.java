@@ -0,0 +1,115 @@
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ *  CLASS: EditJournalTest
+ *  PURPOSE: Checks undo and redo of the EditJournal, also once its buffer has wrapped (no GUI, exits with 1 if a check
+ *           fails).
+ *  AUTHOR: Nathan Poppe
+ *
+ *  Usage: java EditJournalTest
+ *  Random edits of 1 to MAX_EDIT_SIZE boxes are made to a grid until far more boxes have changed than the buffer holds,
+ *  keeping a copy of the grid after every edit. Undoing must step back through the copies one edit at a time and stop at
+ *  the oldest edit it still holds completely, redoing must step forward through them again.
+ */
+public class EditJournalTest {
+
+    private final static int NUM_ROWS = 10;
+    private final static int NUM_COLS = 10;
+    private final static int MAX_EDIT_SIZE = 8; // boxes
+    private final static int NUM_EDITS = 8000; // about 36000 changed boxes, the buffer holds 16384
+
+    private static int numChecks;
+    private static int numFailed;
+
+    public static void main(String[] args){
+        Random random = new Random(1);
+        Grid grid = new Grid(NUM_ROWS, NUM_COLS);
+        EditJournal journal = new EditJournal(NUM_ROWS * NUM_COLS);
+        ArrayList<Grid> states = new ArrayList<Grid>(); // the grid before the first edit, then after every edit
+        states.add(new Grid(grid));
+        for(int edit = 0; edit < NUM_EDITS; edit++){
+            makeEdit(grid, journal, random);
+            states.add(new Grid(grid));
+        }
+
+        // undo back to the oldest edit the buffer still holds
+        int numUndone = 0;
+        while(journal.undo(grid)){
+            numUndone++;
+            if(!isSame(grid, states.get(NUM_EDITS - numUndone))){
+                check(false, "undo " + numUndone + " gives the grid before edit " + (NUM_EDITS - numUndone));
+                break;
+            }
+        }
+        check(numUndone > 0 && numUndone < NUM_EDITS, "the oldest edits are forgotten (" + numUndone + " of " + NUM_EDITS + " undone)");
+        check(numUndone >= (1 << 14) / MAX_EDIT_SIZE, "every edit the buffer holds can be undone");
+
+        // redo every undone edit
+        int numRedone = 0;
+        while(journal.redo(grid)){
+            numRedone++;
+            if(!isSame(grid, states.get(NUM_EDITS - numUndone + numRedone))){
+                check(false, "redo " + numRedone + " gives the grid after edit " + (NUM_EDITS - numUndone + numRedone));
+                break;
+            }
+        }
+        check(numRedone == numUndone, "every undone edit is redone (" + numRedone + " of " + numUndone + ")");
+        check(isSame(grid, states.get(NUM_EDITS)), "redo ends at the last edit");
+
+        // a new edit after an undo can not be redone past
+        check(journal.undo(grid) && journal.undo(grid), "undo twice");
+        makeEdit(grid, journal, random);
+        check(!journal.redo(grid), "nothing to redo after a new edit");
+        Grid afterEdit = new Grid(grid);
+        check(journal.undo(grid) && isSame(grid, states.get(NUM_EDITS - 2)), "undo the new edit");
+        check(journal.redo(grid) && isSame(grid, afterEdit), "redo the new edit");
+
+        // nested edits are undone as one
+        Grid beforeNested = new Grid(grid);
+        journal.begin();
+        makeEdit(grid, journal, random);
+        makeEdit(grid, journal, random);
+        journal.end();
+        check(journal.undo(grid) && isSame(grid, beforeNested), "nested edits are undone together");
+
+        journal.clear();
+        check(!journal.undo(grid) && !journal.redo(grid), "nothing to undo or redo after clear");
+
+        System.out.println((numChecks - numFailed) + " of " + numChecks + " checks passed");
+        System.exit(numFailed == 0 ? 0 : 1);
+    }
+
+    /**
+     * Changes 1 to MAX_EDIT_SIZE random boxes as one edit, the way Crossword records its edits
+     */
+    private static void makeEdit(Grid grid, EditJournal journal, Random random){
+        journal.begin();
+        int numBoxes = 1 + random.nextInt(MAX_EDIT_SIZE);
+        for(int i = 0; i < numBoxes; i++){
+            int box = random.nextInt(NUM_ROWS * NUM_COLS);
+            int oldCode = grid.getLetterCode(box);
+            int newCode = (oldCode + 1 + random.nextInt(25)) % 27; // never the old code (0 is no letter)
+            grid.setLetterCode(box, newCode);
+            journal.record(box, oldCode, newCode);
+        }
+        journal.end();
+    }
+
+    private static boolean isSame(Grid grid, Grid other){
+        for(int box = 0; box < grid.getNumBoxes(); box++){
+            if(grid.getLetterCode(box) != other.getLetterCode(box))
+                return false;
+        }
+        return true;
+    }
+
+    private static void check(boolean isPassed, String name){
+        numChecks++;
+        if(!isPassed){
+            numFailed++;
+            System.out.println("FAILED: " + name);
+        }
+    }
+
+}
@@ -0,0 +1,43 @@
+
+/**
+ *  INTERFACE: Filler
+ *  PURPOSE: A way of filling every open entry of a crossword (autofill), so the GUI and the batch generator can run any of
+ *           them: one CrosswordFiller or several racing in a PortfolioFiller.
+ *  AUTHOR: Nathan Poppe
+ */
+public interface Filler {
+
+    /**
+     * Fills the crossword
+     * @return - true if every entry was filled (the crossword is left unchanged otherwise)
+     */
+    boolean fill();
+
+    /**
+     * Stops the fill as soon as possible (can be called from any thread), fill() then returns false
+     */
+    void cancel();
+
+    /**
+     * Makes the fill give up (and return false) after this many milliseconds, 0 for no limit
+     */
+    void setTimeLimit(long timeLimit);
+
+    /**
+     * @return - the number of words placed so far (can be called from any thread)
+     */
+    long getNumNodes();
+
+    /**
+     * @return - a copy of the crossword's grid with the words placed right now (can be called from any thread), null
+     *           before the fill has started
+     */
+    Grid getProgressGrid();
+
+    /**
+     * Writes the most complete fill found into the crossword (for a fill that ran out of time)
+     * @return - false if no word was placed
+     */
+    boolean writeBestPartial();
+
+}
@@ -2,6 +2,7 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseMotionListener;
+import java.util.concurrent.CompletableFuture;
 
 
 public class GUI extends JFrame implements MouseMotionListener {
@@ -85,7 +86,7 @@ public class GUI extends JFrame implements MouseMotionListener {
         crosswordGraphics.requestFocusInWindow();
     }
 
-    public void setUpNewFile(Crossword crossword, WordFinder wordFinder){
+    public void setUpNewFile(Crossword crossword, CompletableFuture<WordFinder> wordFinder){
         refreshScreen();
         controlPanel = new ControlPanel(crossword, (containerWidth - 3 * gapWidth) / 2, containerHeight - 2 * gapWidth, this);
         showCrosswordGraphics(crossword, "file");
@@ -117,6 +118,10 @@ public class GUI extends JFrame implements MouseMotionListener {
         crosswordGraphics.fillInWord(suggestion);
     }
 
+    public void setPreviewGrid(Grid previewGrid){
+        crosswordGraphics.setPreviewGrid(previewGrid);
+    }
+
     @Override
     public void mouseDragged(MouseEvent e) {
 
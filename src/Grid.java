@@ -0,0 +1,142 @@
+
+/**
+ *  CLASS: Grid
+ *  PURPOSE: The boxes of a crossword: which boxes are filled in (blocks) and the letter written in each open box.
+ *  AUTHOR: Nathan Poppe
+ *
+ *  Boxes are stored row by row in flat arrays: box = row * numCols + col.
+ *      - blocks: one bit per box (bit box % 64 of blocks[box / 64])
+ *      - letters: a 5 bit code per box, 0 for no letter and 1-26 for A-Z
+ *  Clue numbers are not stored, they follow from the blocks (see SlotTable). A grid is a few hundred bytes, so the
+ *  autofill workers can each copy one cheaply.
+ */
+public class Grid {
+
+    public final static char NO_LETTER = '_';
+
+    private int numRows;
+    private int numCols;
+    private long[] blocks;
+    private byte[] letters;
+
+    public Grid(int numRows, int numCols){
+        this.numRows = numRows;
+        this.numCols = numCols;
+        this.blocks = new long[(numRows * numCols + 63) / 64];
+        this.letters = new byte[numRows * numCols];
+    }
+
+    // copy constructor
+    public Grid(Grid grid){
+        this.numRows = grid.numRows;
+        this.numCols = grid.numCols;
+        this.blocks = grid.blocks.clone();
+        this.letters = grid.letters.clone();
+    }
+
+    public int getNumRows(){
+        return numRows;
+    }
+
+    public int getNumCols(){
+        return numCols;
+    }
+
+    public int getNumBoxes(){
+        return letters.length;
+    }
+
+    public boolean isInBounds(int row, int col){
+        return row >= 0 && row < numRows && col >= 0 && col < numCols;
+    }
+
+    public boolean isBlock(int row, int col){
+        int box = row * numCols + col;
+        return (blocks[box >>> 6] & 1L << box) != 0;
+    }
+
+    /**
+     * Fills in (or empties) the box. A filled in box has no letter.
+     */
+    public void setBlock(int row, int col, boolean isBlock){
+        int box = row * numCols + col;
+        if(isBlock){
+            blocks[box >>> 6] |= 1L << box;
+            letters[box] = 0;
+        }
+        else{
+            blocks[box >>> 6] &= ~(1L << box);
+        }
+    }
+
+    public int countBlocks(){
+        int count = 0;
+        for(long word : blocks){
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    public int countLetters(){
+        int count = 0;
+        for(byte code : letters){
+            count += code != 0 ? 1 : 0;
+        }
+        return count;
+    }
+
+    /**
+     * @return - the (uppercase) letter in the box, NO_LETTER if there is none
+     */
+    public char getLetter(int row, int col){
+        byte code = letters[row * numCols + col];
+        return code == 0 ? NO_LETTER : (char)('A' + code - 1);
+    }
+
+    /**
+     * @param letter - a letter A-Z (stored uppercase), anything else empties the box (see isStorable)
+     */
+    public void setLetter(int row, int col, char letter){
+        letters[row * numCols + col] = isStorable(letter) ? (byte)(Character.toUpperCase(letter) - 'A' + 1) : 0;
+    }
+
+    /**
+     * @return - true if the letter can be written into a box: only a-z/A-Z fit the 5 bit letter codes (eg. not accented letters)
+     */
+    public static boolean isStorable(char letter){
+        char upperCase = Character.toUpperCase(letter);
+        return upperCase >= 'A' && upperCase <= 'Z';
+    }
+
+    /**
+     * @param box - row * numCols + col
+     * @return - the code of the box's letter: 0 for no letter, 1-26 for A-Z
+     */
+    public int getLetterCode(int box){
+        return letters[box];
+    }
+
+    /**
+     * @param box - row * numCols + col
+     * @param code - 0 for no letter, 1-26 for A-Z
+     */
+    public void setLetterCode(int box, int code){
+        letters[box] = (byte)code;
+    }
+
+    public boolean hasLetter(int row, int col){
+        return letters[row * numCols + col] != 0;
+    }
+
+    /**
+     * Copies the letters of another grid of the same size (eg. a grid that was filled on another thread)
+     * @param onlyEmpty - true to only fill the boxes that have no letter yet
+     */
+    public void copyLetters(Grid grid, boolean onlyEmpty){
+        for(int box = 0; box < letters.length; box++){
+            if(!onlyEmpty || letters[box] == 0)
+                letters[box] = grid.letters[box];
+        }
+    }
+
+}
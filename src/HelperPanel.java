@@ -5,9 +5,11 @@ import javax.swing.event.ListSelectionEvent;
 import javax.swing.event.ListSelectionListener;
 import java.awt.*;
 import java.awt.event.*;
-import java.util.ArrayList;
+import java.io.File;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
 
-public class HelperPanel implements ChangeListener, ListSelectionListener, ItemListener {
+public class HelperPanel implements ChangeListener, ListSelectionListener, ItemListener, ActionListener {
 
     // all constant integers are measured in pixels
     private final static int GAP_SIZE = 5; // gap distance between components on the panel
@@ -19,10 +21,16 @@ public class HelperPanel implements ChangeListener, ListSelectionListener, ItemL
     // multiplied by the size of each letterField to get the font size of the letter in the letterField
     private final static float SUGGESTION_FONT_RATIO = 0.5f;
 
+    private final static String LOADING_MESSAGE = "Loading dictionary..."; // shown in the word list until the dictionary is loaded
+    private final static String LOADING_WORD_LIST_MESSAGE = "Loading word list..."; // shown while a user word list is read in
+    private final static String WORD_LIST_FOLDER = "resources";
+    private final static long AUTOFILL_TIME_LIMIT = 60000; // milliseconds, then autofill keeps the most complete fill it found
+    private final static int REGION_CACHE_SIZE = 256; // regions kept between autofills
+
     private Crossword crossword; // the current crossword that the helperPanel is based on
     private JPanel tab; // the JPanel that holds all the components
     private ControlPanel controlPanel; // holds the helperPanel and cluesPanel
-    private WordFinder wordFinder; // used to access the dictionaries (all possible words)
+    private WordFinder wordFinder; // used to access the dictionaries (all possible words), null until loaded
 
     // All HelperPanel Components
     private JLabel numLetterLabel; // displays the number of letters given by the suggestion, eg. "Number of Letters: 5"
@@ -30,28 +38,64 @@ public class HelperPanel implements ChangeListener, ListSelectionListener, ItemL
     private JPanel suggestionPanel; // a JPanel containing the letterFields that make up the suggestion
     private int suggestionPanelHeight;
     private LetterField[] letterFields; // an array containing the letterFields that make up the suggestion
-    private DefaultListModel<String> wordListModel; // contains all possible words based on the suggestion
+    private WordListModel wordListModel; // contains all possible words based on the suggestion
     private JList<String> wordList; // the graphical list containing all the words
     private JScrollPane wordListScroller; // adds a scroll pane to the wordList
     private JPanel filterPanel; // a JPanel containing a Checkbox and a Combobox to filter word list
     private JComboBox<String> setDictionaryComboBox;
     private String regDictionaryName = "84000 Words";
     private String longDictionaryName = "370000 Words";
+    private String loadWordListName = "Load Word List..."; // opens a user word list (see WordList)
+    private String userWordListName; // the file name of the loaded user word list, null if there is none
+    private WordList userWordList; // searched by scanning instead of the dictionary index, null until one is loaded
+    private boolean isLoadingWordList = false;
     private JCheckBox setAlternatingCheckBox;
+    private JButton autofillButton; // starts autofill, and cancels it while it runs
+    private JLabel autofillLabel; // the progress of autofill, eg. "1,520 nodes/s"
+    private AutofillWorker autofillWorker; // the autofill that is running, null if there is none
+    private RegionCache regionCache = new RegionCache(REGION_CACHE_SIZE); // the regions autofill has filled (see RegionFiller)
 
     private boolean isAlternating = false;
-    private boolean useRegWordList = true;
+    private boolean useRegWordList = true; // the dictionary autofill uses, even while a user word list is shown
+    private boolean useUserWordList = false;
 
     private String suggestion; // the current suggestion, eg. "s_p__e"
+
+    // the last words found, reused when the suggestion only gets more specific (eg. a letter is typed into a blank)
+    private WordMatches lastPossibleWords;
+    private String lastSuggestion;
+    private boolean lastIsAlternating;
+    private boolean lastUseRegWordList;
+    private boolean lastUseUserWordList;
     private int focussedLetterField = -1;
 
-    public HelperPanel(Crossword crossword, JPanel tab, ControlPanel controlPanel, WordFinder wordFinder){
+    public HelperPanel(Crossword crossword, JPanel tab, ControlPanel controlPanel, CompletableFuture<WordFinder> wordFinder){
         this.crossword = crossword;
         this.tab = tab;
         this.controlPanel = controlPanel;
-        this.wordFinder = wordFinder;
         this.suggestion = crossword.getSuggestion(1, true); // gets the "default" suggestion, clue 1 across
         addComponentsToPanel();
+        waitForDictionaries(wordFinder);
+    }
+
+    /**
+     * Shows the word list once the 84000 word list is loaded, and again once the 370000 word list is (it is loaded after).
+     * The updates happen on the Swing event thread.
+     * @param wordFinderFuture - completes once the 84000 word list is loaded
+     */
+    private void waitForDictionaries(CompletableFuture<WordFinder> wordFinderFuture){
+        wordFinderFuture.thenAccept(loadedWordFinder -> {
+            SwingUtilities.invokeLater(() -> {
+                wordFinder = loadedWordFinder;
+                updateWordList();
+            });
+            loadedWordFinder.whenLoaded(false).thenRun(() -> SwingUtilities.invokeLater(this::updateWordList));
+        });
+    }
+
+    // true once the word list that is shown can be searched
+    private boolean isDictionaryLoaded(){
+        return wordFinder != null && !isLoadingWordList && (useUserWordList || wordFinder.isLoaded(useRegWordList));
     }
 
     private void addComponentsToPanel(){
@@ -84,7 +128,7 @@ public class HelperPanel implements ChangeListener, ListSelectionListener, ItemL
      */
     private void addNumLetterSlider(){
         numLetterSlider = new JSlider();
-        updateNumLetterSlider(1, crossword.getWidth(), suggestion.length());
+        updateNumLetterSlider(1, getMaxWordLength(), suggestion.length());
         numLetterSlider.setPreferredSize(new Dimension(tab.getWidth() / 3, NUM_LETTER_INPUT_HEIGHT));
         numLetterSlider.addChangeListener(this);
         numLetterSlider.setSnapToTicks(true);
@@ -123,7 +167,8 @@ public class HelperPanel implements ChangeListener, ListSelectionListener, ItemL
     private void addSuggestionPanel(){
         suggestionPanel = new JPanel();
         int suggestionPanelWidth = tab.getWidth() - 2 * GAP_SIZE;
-        suggestionPanelHeight = Math.min(SUGGESTION_MAX_HEIGHT, (suggestionPanelWidth - (crossword.getWidth() + 1) * SUGGESTION_GAP_SIZE) / crossword.getWidth() + 2 * SUGGESTION_GAP_SIZE);
+        int maxWordLength = getMaxWordLength();
+        suggestionPanelHeight = Math.min(SUGGESTION_MAX_HEIGHT, Math.max(1, (suggestionPanelWidth - (maxWordLength + 1) * SUGGESTION_GAP_SIZE) / maxWordLength) + 2 * SUGGESTION_GAP_SIZE);
         suggestionPanel.setPreferredSize(new Dimension(suggestionPanelWidth, suggestionPanelHeight));
         suggestionPanel.setSize(new Dimension(suggestionPanelWidth, suggestionPanelHeight));
         suggestionPanel.setLayout(new FlowLayout(FlowLayout.CENTER, SUGGESTION_GAP_SIZE, SUGGESTION_GAP_SIZE));
@@ -131,6 +176,22 @@ public class HelperPanel implements ChangeListener, ListSelectionListener, ItemL
         tab.add(suggestionPanel);
     }
 
+    /**
+     * @return - the length of the longest entry, the longest a suggestion can be. At most max(width, height), since the
+     *           grid can be rectangular (up to 100x100) and its longest entry can run either way
+     */
+    private int getMaxWordLength(){
+        SlotTable slotTable = crossword.getSlotTable();
+        int maxLength = 1;
+        for(int i = 0; i < slotTable.getNumSlots(true); i++){
+            maxLength = Math.max(maxLength, slotTable.getSlotOfClue(true, i).getLength());
+        }
+        for(int i = 0; i < slotTable.getNumSlots(false); i++){
+            maxLength = Math.max(maxLength, slotTable.getSlotOfClue(false, i).getLength());
+        }
+        return maxLength;
+    }
+
     /**
      * Removes previous letterFields (if any) any creates new ones based on the suggestion
      */
@@ -152,10 +213,12 @@ public class HelperPanel implements ChangeListener, ListSelectionListener, ItemL
      * Adds a scrollable JList containing all possible words.
      */
     private void addWordList(){
-        wordListModel = new DefaultListModel<String>();
+        wordListModel = new WordListModel();
         updateWordListModel();
 
         wordList = new JList<String>(wordListModel);
+        updateCellWidth();
+        wordList.setEnabled(isDictionaryLoaded());
         wordList.setLayout(new GridLayout());
         wordList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
         wordList.addListSelectionListener(this);
@@ -169,25 +232,39 @@ public class HelperPanel implements ChangeListener, ListSelectionListener, ItemL
      * Updates the list containing all the words based on 3 things:
      *      1. The suggestion
      *      2. Whether to include all words or only alternating words
-     *      3. Whether to use the regular dictionary or the large dictionary
+     *      3. Whether to use the regular dictionary, the large dictionary or a user word list
      */
     private void updateWordListModel(){
-        wordListModel.clear(); // remove all words
-        ArrayList<String> possibleWords;
-        if(isAlternating) // if user has filtered to only include alternating words
+        if(!isDictionaryLoaded()){
+            wordListModel.setMessage(isLoadingWordList ? LOADING_WORD_LIST_MESSAGE : LOADING_MESSAGE);
+            return;
+        }
+        WordMatches possibleWords;
+        if(canRefineLastWords()) // only filter the last words instead of searching the whole dictionary
+            possibleWords = wordFinder.refineWords(lastPossibleWords, lastSuggestion, suggestion);
+        else if(useUserWordList) // scanned in parallel if the list is large
+            possibleWords = isAlternating ? wordFinder.findAlternatingWords(userWordList, suggestion) : wordFinder.findPossibleWords(userWordList, suggestion);
+        else if(isAlternating) // if user has filtered to only include alternating words
             possibleWords = wordFinder.findAlternatingWords(useRegWordList, suggestion);
         else
             possibleWords = wordFinder.findPossibleWords(useRegWordList, suggestion);
+        lastPossibleWords = possibleWords;
+        lastSuggestion = suggestion;
+        lastIsAlternating = isAlternating;
+        lastUseRegWordList = useRegWordList;
+        lastUseUserWordList = useUserWordList;
 
-        // add words from ArrayList to WordListModel
-        for(int i = 0; i < possibleWords.size(); i++){
-            wordListModel.addElement(possibleWords.get(i).toUpperCase());
-        }
+        wordListModel.setWords(possibleWords); // the words are only turned into Strings when they are shown
+    }
+
+    private boolean canRefineLastWords(){
+        return lastPossibleWords != null && lastIsAlternating == isAlternating && lastUseRegWordList == useRegWordList && lastUseUserWordList == useUserWordList && wordFinder.isRefinement(lastSuggestion, suggestion);
     }
 
     private void updateWordList(){
         updateWordListModel();
         wordList.setModel(wordListModel);
+        wordList.setEnabled(isDictionaryLoaded());
     }
 
     private void addFilterPanel(){
@@ -198,6 +275,7 @@ public class HelperPanel implements ChangeListener, ListSelectionListener, ItemL
         setDictionaryComboBox = new JComboBox<String>();
         setDictionaryComboBox.addItem(regDictionaryName);
         setDictionaryComboBox.addItem(longDictionaryName);
+        setDictionaryComboBox.addItem(loadWordListName);
         setDictionaryComboBox.addItemListener(this);
         filterPanel.add(setDictionaryComboBox);
 
@@ -205,6 +283,12 @@ public class HelperPanel implements ChangeListener, ListSelectionListener, ItemL
         setAlternatingCheckBox.addItemListener(this);
         filterPanel.add(setAlternatingCheckBox);
 
+        autofillButton = new JButton("Autofill");
+        autofillButton.addActionListener(this);
+        filterPanel.add(autofillButton);
+        autofillLabel = new JLabel(" ");
+        filterPanel.add(autofillLabel);
+
         tab.add(filterPanel);
     }
 
@@ -216,9 +300,16 @@ public class HelperPanel implements ChangeListener, ListSelectionListener, ItemL
     @Override
     public void itemStateChanged(ItemEvent e) {
         if(e.getSource().equals(setDictionaryComboBox)){
-            if(e.getItem().equals("84000 Words"))
+            if(e.getStateChange() != ItemEvent.SELECTED)
+                return;
+            if(e.getItem().equals(loadWordListName)){
+                loadWordList();
+                return;
+            }
+            useUserWordList = e.getItem().equals(userWordListName);
+            if(e.getItem().equals(regDictionaryName))
                 useRegWordList = true;
-            else
+            else if(e.getItem().equals(longDictionaryName))
                 useRegWordList = false;
         }
         else if(e.getSource().equals(setAlternatingCheckBox)){
@@ -230,6 +321,71 @@ public class HelperPanel implements ChangeListener, ListSelectionListener, ItemL
         updateWordList();
     }
 
+    /**
+     * Asks for a word list file (one word or phrase per line) and reads it in the background, then shows its words.
+     * A list replaces the one loaded before it.
+     */
+    private void loadWordList(){
+        JFileChooser fileChooser = new JFileChooser(new File(WORD_LIST_FOLDER));
+        if(isLoadingWordList || fileChooser.showOpenDialog(tab) != JFileChooser.APPROVE_OPTION){
+            setDictionaryComboBox.setSelectedItem(useUserWordList ? userWordListName : useRegWordList ? regDictionaryName : longDictionaryName);
+            return;
+        }
+        File file = fileChooser.getSelectedFile();
+        isLoadingWordList = true;
+        setDictionaryComboBox.setEnabled(false);
+        updateWordList();
+        CompletableFuture.supplyAsync(() -> new WordList(file.getPath())).thenAccept(wordList -> SwingUtilities.invokeLater(() -> {
+            if(userWordListName != null)
+                setDictionaryComboBox.removeItem(userWordListName);
+            userWordList = wordList;
+            userWordListName = file.getName();
+            lastPossibleWords = null; // the last words may be from the previous list
+            isLoadingWordList = false;
+            setDictionaryComboBox.insertItemAt(userWordListName, setDictionaryComboBox.getItemCount() - 1);
+            setDictionaryComboBox.setEnabled(true);
+            setDictionaryComboBox.setSelectedItem(userWordListName); // shows its words (see itemStateChanged)
+        }));
+    }
+
+    /**
+     * Called when autofillButton is pressed. Fills the crossword's empty boxes in the background, or cancels the fill.
+     * @param e
+     */
+    @Override
+    public void actionPerformed(ActionEvent e) {
+        if(autofillWorker != null){
+            autofillWorker.cancelFill();
+        }
+        else if(isDictionaryLoaded()){
+            autofillWorker = new AutofillWorker(crossword, wordFinder, useRegWordList, AUTOFILL_TIME_LIMIT, regionCache, this);
+            autofillWorker.start();
+            autofillButton.setText("Cancel");
+            autofillLabel.setText("Filling...");
+        }
+    }
+
+    /**
+     * Shows the words autofill has placed so far (called FRAME_RATE times a second while it runs)
+     * @param grid - the crossword's grid with the placed words
+     * @param nodesPerSecond - the number of words autofill places per second
+     */
+    public void showAutofillProgress(Grid grid, long nodesPerSecond){
+        if(grid != null)
+            controlPanel.setPreviewGrid(grid);
+        autofillLabel.setText(String.format("%,d nodes/s", nodesPerSecond));
+    }
+
+    /**
+     * @param message - how the fill ended, eg. "Filled"
+     */
+    public void autofillDone(String message){
+        autofillWorker = null;
+        controlPanel.setPreviewGrid(null);
+        autofillButton.setText("Autofill");
+        autofillLabel.setText(message);
+    }
+
     public void updateSuggestion(String newSuggestion){
         this.suggestion = newSuggestion;
         updateComponents();
@@ -245,11 +401,23 @@ public class HelperPanel implements ChangeListener, ListSelectionListener, ItemL
 
     private void updateComponents(){
         updateNumLetterLabel(suggestion.length());
-        updateNumLetterSlider(1, crossword.getWidth(), suggestion.length());
+        updateNumLetterSlider(1, getMaxWordLength(), suggestion.length());
         updateLetterFields();
+        updateCellWidth();
         updateWordList();
     }
 
+    /**
+     * Fixes the size of the word list's cells (so the list never measures every word) to fit the widest word of the
+     * suggestion's length, the scroll pane scrolls sideways if the words are wider than the list
+     */
+    private void updateCellWidth(){
+        String widestWord = String.join("", Collections.nCopies(suggestion.length(), "W"));
+        FontMetrics fontMetrics = wordList.getFontMetrics(wordList.getFont());
+        boolean isWordWider = fontMetrics.stringWidth(widestWord) > fontMetrics.stringWidth(LOADING_MESSAGE);
+        wordList.setPrototypeCellValue(isWordWider ? widestWord : LOADING_MESSAGE); // the messages have to fit too
+    }
+
     public void changeFocussedLetterField(int newFieldToFocus){
         if(newFieldToFocus >= 0 && newFieldToFocus < letterFields.length) {
             if (newFieldToFocus != focussedLetterField) {
@@ -266,7 +434,7 @@ public class HelperPanel implements ChangeListener, ListSelectionListener, ItemL
     @Override
     public void valueChanged(ListSelectionEvent e) {
         String newWord = wordList.getSelectedValue();
-        if(newWord != null)
+        if(newWord != null && isDictionaryLoaded())
             controlPanel.fillInWord(wordList.getSelectedValue());
     }
 }
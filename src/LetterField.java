@@ -8,6 +8,8 @@ import java.text.ParseException;
 
 public class LetterField extends JFormattedTextField implements FocusListener, KeyListener, DocumentListener {
 
+    private final static String VALID_LETTERS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz"; // see Grid.isStorable
+
     private int letterNum;
     private HelperPanel helperPanel;
 
@@ -35,6 +37,7 @@ public class LetterField extends JFormattedTextField implements FocusListener, K
     private void addMaskFormatter(){
         try {
             MaskFormatter maskFormatter = new MaskFormatter("U");
+            maskFormatter.setValidCharacters(VALID_LETTERS); // only the letters a box can hold
             maskFormatter.install(this);
         }
         catch(ParseException e){
@@ -65,7 +68,7 @@ public class LetterField extends JFormattedTextField implements FocusListener, K
                 setText("");
             helperPanel.changeFocussedLetterField(letterNum - 1);
         }
-        else if(Character.isLetter(keyPressed) || e.getKeyCode() == KeyEvent.VK_RIGHT){
+        else if(Grid.isStorable(keyPressed) || e.getKeyCode() == KeyEvent.VK_RIGHT){
             helperPanel.changeFocussedLetterField(letterNum + 1);
         }
     }
@@ -0,0 +1,98 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ *  CLASS: NogoodTable
+ *  PURPOSE: Remembers combinations of words that autofill has proven can not all be in the crossword together (nogoods).
+ *  AUTHOR: Nathan Poppe
+ *
+ *  A nogood is a set of (slot, word) assignments. It is keyed on the letter pattern those words write into the crossword,
+ *  eg. "4=crane 17=oboe", so the same dead combination is only stored once.
+ *  Each nogood is also listed under every one of its assignments, so placing a word only checks the nogoods that contain it.
+ *  The table is bounded: once it holds maxNogoods, the least recently used nogood is forgotten.
+ */
+public class NogoodTable {
+
+    private int maxNogoods;
+    private LinkedHashMap<String, int[]> nogoods; // key --> slot, ordinal, slot, ordinal, ... (least recently used first)
+    private HashMap<Long, ArrayList<String>> watches; // (slot, ordinal) --> the keys of the nogoods containing it
+
+    public NogoodTable(int maxNogoods){
+        this.maxNogoods = maxNogoods;
+        this.watches = new HashMap<Long, ArrayList<String>>();
+        this.nogoods = new LinkedHashMap<String, int[]>(16, 0.75f, true){
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, int[]> eldest){
+                if(size() <= NogoodTable.this.maxNogoods)
+                    return false;
+                unwatch(eldest.getKey(), eldest.getValue());
+                return true;
+            }
+        };
+    }
+
+    /**
+     * @param key - the letter pattern of the assignments (the same assignments must always give the same key)
+     * @param assignments - slot, ordinal, slot, ordinal, ...
+     */
+    public void add(String key, int[] assignments){
+        if(nogoods.containsKey(key))
+            return;
+        nogoods.put(key, assignments);
+        for(int i = 0; i < assignments.length; i += 2){
+            long watch = getWatch(assignments[i], assignments[i + 1]);
+            ArrayList<String> keys = watches.get(watch);
+            if(keys == null){
+                keys = new ArrayList<String>();
+                watches.put(watch, keys);
+            }
+            keys.add(key);
+        }
+    }
+
+    private void unwatch(String key, int[] assignments){
+        for(int i = 0; i < assignments.length; i += 2){
+            long watch = getWatch(assignments[i], assignments[i + 1]);
+            ArrayList<String> keys = watches.get(watch);
+            keys.remove(key);
+            if(keys.isEmpty())
+                watches.remove(watch);
+        }
+    }
+
+    /**
+     * Finds a nogood that placing the word in the slot would complete
+     * @param assignedOrdinals - the ordinal of the word in each slot, -1 if the slot has no word
+     * @return - the nogood's assignments (slot, ordinal, ...), null if there is none
+     */
+    public int[] find(int slot, int ordinal, int[] assignedOrdinals){
+        ArrayList<String> keys = watches.get(getWatch(slot, ordinal));
+        if(keys == null)
+            return null;
+        for(String key : keys){
+            int[] assignments = nogoods.get(key);
+            if(isComplete(assignments, slot, assignedOrdinals))
+                return assignments;
+        }
+        return null;
+    }
+
+    private boolean isComplete(int[] assignments, int slot, int[] assignedOrdinals){
+        for(int i = 0; i < assignments.length; i += 2){
+            if(assignments[i] != slot && assignedOrdinals[assignments[i]] != assignments[i + 1])
+                return false;
+        }
+        return true;
+    }
+
+    private long getWatch(int slot, int ordinal){
+        return (long)slot << 32 | ordinal;
+    }
+
+    public int size(){
+        return nogoods.size();
+    }
+
+}
@@ -42,6 +42,8 @@ public class PDFWriter {
     private final static int DOC_HEIGHT = 792;
     private final static int TITLE_FONT_SIZE = 24;
     private final static int MAX_CLUES_FONT_SIZE = 14;
+    private final static int MIN_CLUES_FONT_SIZE = 4; // a jumbo crossword's clues may not fit on one page even this small
+    private final static float MAX_GRID_HEIGHT_RATIO = 0.75f; // the most of a column's height the grid can take
 
     private final static int MARGIN_SIZE = 36;
     private final static int NUM_COLUMNS = 3;
@@ -68,7 +70,7 @@ public class PDFWriter {
     public void createOnePagePDF(){
         int numPages = 0;
         cluesFontSize = MAX_CLUES_FONT_SIZE;
-        while(numPages != 1){
+        while(numPages != 1 && cluesFontSize >= MIN_CLUES_FONT_SIZE){
             createPDF();
             numPages = pdf.getNumberOfPages();
             cluesFontSize--;
@@ -99,11 +101,13 @@ public class PDFWriter {
         grid.setHorizontalAlignment(HorizontalAlignment.RIGHT);
         grid.setMarginTop(titleBottomGap);
 
+        // the grid spans the 2 right columns, a tall grid is made smaller so it leaves room for clues below it
         cellSize = (int)((COLUMN_WIDTH * 2 + 1.5 * MARGIN_SIZE - crossword.getWidth()) / crossword.getWidth());
+        cellSize = Math.max(1, Math.min(cellSize, (int)(COLUMN_HEIGHT * MAX_GRID_HEIGHT_RATIO - titleBottomGap) / crossword.getHeight()));
         doc.setFontSize(NUMBER_FONT_RATIO * cellSize);
 
-        for(int i = 0; i < crossword.getWidth(); i++){
-            for(int j = 0; j < crossword.getHeight(); j++){
+        for(int i = 0; i < crossword.getHeight(); i++){ // cells are added row by row
+            for(int j = 0; j < crossword.getWidth(); j++){
                 int number = crossword.getNumber(i, j);
                 Cell cell = new Cell();
                 cell.setWidth(cellSize);
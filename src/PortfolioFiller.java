@@ -0,0 +1,192 @@
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ *  CLASS: PortfolioFiller
+ *  PURPOSE: Fills a crossword by racing several differently seeded CrosswordFillers on their own threads.
+ *  AUTHOR: Nathan Poppe
+ *
+ *  How long a backtracking fill takes depends a lot on luck: one seed fills a grid in a blink while another wanders for
+ *  minutes. Every worker fills its own copy of the crossword, the first complete fill is copied into the crossword and the
+ *  other workers are cancelled. A worker that gives up (eg. runs out of time) does not stop the others.
+ *
+ *  Worker i uses seed + i and noise 1 + (i % 4) (see CrosswordFiller.setNoise). Which worker finishes first depends on
+ *  timing, but every worker's fill is deterministic, so running the winning worker alone gives exactly the same words:
+ *      CrosswordFiller filler = new CrosswordFiller(crossword, wordFinder, useRegWordList, seed + winner);
+ *      filler.setNoise(1 + winner % 4);
+ */
+public class PortfolioFiller implements Filler {
+
+    private Crossword crossword;
+    private WordFinder wordFinder;
+    private boolean useRegWordList;
+    private long seed;
+    private int numWorkers;
+    private long timeLimit; // milliseconds for every worker, 0 for no limit
+
+    private volatile CrosswordFiller[] fillers;
+    private Crossword[] copies; // the crossword each worker fills
+    private int winner; // the worker whose fill was used, -1 if there is none
+    private volatile boolean isCancelled;
+
+    /**
+     * @param crossword - the crossword to fill (its blocks and letters are kept)
+     * @param wordFinder - finds the words for each entry
+     * @param useRegWordList - true to fill with the regular dictionary, false for the large dictionary
+     * @param seed - the seed of the first worker
+     * @param numWorkers - the number of workers (and threads)
+     */
+    public PortfolioFiller(Crossword crossword, WordFinder wordFinder, boolean useRegWordList, long seed, int numWorkers){
+        this.crossword = crossword;
+        this.wordFinder = wordFinder;
+        this.useRegWordList = useRegWordList;
+        this.seed = seed;
+        this.numWorkers = numWorkers;
+        this.winner = -1;
+    }
+
+    // one worker per core
+    public PortfolioFiller(Crossword crossword, WordFinder wordFinder, boolean useRegWordList, long seed){
+        this(crossword, wordFinder, useRegWordList, seed, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Makes every worker give up after this many milliseconds, 0 (the default) for no limit
+     */
+    public void setTimeLimit(long timeLimit){
+        this.timeLimit = timeLimit;
+    }
+
+    /**
+     * Runs the workers on their own threads
+     * @return - true if every entry was filled (the crossword is left unchanged otherwise)
+     */
+    public boolean fill(){
+        ExecutorService executor = Executors.newFixedThreadPool(numWorkers, runnable -> {
+            Thread thread = new Thread(runnable, "fill-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try{
+            return fill(executor);
+        }
+        finally{
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Runs the workers on the executor (which should have a thread for every worker)
+     * @return - true if every entry was filled (the crossword is left unchanged otherwise)
+     */
+    public boolean fill(ExecutorService executor){
+        ExecutorCompletionService<Integer> completionService = new ExecutorCompletionService<Integer>(executor);
+        copies = new Crossword[numWorkers];
+        fillers = new CrosswordFiller[numWorkers];
+        for(int i = 0; i < numWorkers; i++){
+            final int worker = i;
+            copies[i] = new Crossword(crossword);
+            fillers[i] = new CrosswordFiller(copies[i], wordFinder, useRegWordList, seed + i);
+            fillers[i].setNoise(1 + i % 4);
+            fillers[i].setTimeLimit(timeLimit);
+            if(isCancelled)
+                fillers[i].cancel();
+            completionService.submit(() -> fillers[worker].fill() ? worker : -1);
+        }
+
+        try{
+            for(int done = 0; winner == -1 && done < numWorkers; done++){
+                winner = completionService.take().get();
+            }
+        }
+        catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+        }
+        catch(ExecutionException e){
+            System.out.println("Could not fill crossword!");
+        }
+        stopWorkers(); // the other workers
+        if(winner == -1)
+            return false;
+
+        crossword.copyLetters(copies[winner].getGrid(), false);
+        return true;
+    }
+
+    /**
+     * Stops every worker (can be called from any thread)
+     */
+    public void cancel(){
+        isCancelled = true;
+        stopWorkers();
+    }
+
+    private void stopWorkers(){
+        CrosswordFiller[] workers = fillers;
+        for(int i = 0; workers != null && i < workers.length; i++){
+            if(workers[i] != null)
+                workers[i].cancel();
+        }
+    }
+
+    /**
+     * @return - the worker whose fill was used, -1 if the crossword was not filled
+     */
+    public int getWinner(){
+        return winner;
+    }
+
+    /**
+     * @return - the grid of the worker that has placed the most letters right now (can be called from any thread), null
+     *           before the fill has started
+     */
+    public Grid getProgressGrid(){
+        Grid best = null;
+        int bestCount = -1;
+        CrosswordFiller[] workers = fillers;
+        for(int i = 0; workers != null && i < workers.length; i++){
+            Grid grid = workers[i] == null ? null : workers[i].getProgressGrid();
+            if(grid != null && grid.countLetters() > bestCount){
+                best = grid;
+                bestCount = grid.countLetters();
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Writes the most complete fill any worker found into the crossword (for a fill that ran out of time)
+     * @return - false if no word was placed
+     */
+    public boolean writeBestPartial(){
+        Grid best = null;
+        int bestCount = -1;
+        CrosswordFiller[] workers = fillers;
+        for(int i = 0; workers != null && i < workers.length; i++){
+            if(workers[i] != null && workers[i].writeBestPartial() && copies[i].getGrid().countLetters() > bestCount){
+                best = copies[i].getGrid();
+                bestCount = best.countLetters();
+            }
+        }
+        if(best == null)
+            return false;
+        crossword.copyLetters(best, false);
+        return true;
+    }
+
+    /**
+     * @return - the words placed by all workers together
+     */
+    public long getNumNodes(){
+        long numNodes = 0;
+        CrosswordFiller[] workers = fillers;
+        for(int i = 0; workers != null && i < workers.length; i++){
+            if(workers[i] != null)
+                numNodes += workers[i].getNumNodes();
+        }
+        return numNodes;
+    }
+
+}
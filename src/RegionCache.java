@@ -0,0 +1,49 @@
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ *  CLASS: RegionCache
+ *  PURPOSE: A least recently used cache of region fills (see RegionFiller) that outlives one fill, so filling the same
+ *           crossword again only refills the regions whose letters changed.
+ *  AUTHOR: Nathan Poppe
+ *
+ *  A region is keyed by the dictionary, the grid's width and the region's boxes with their letters (see RegionFiller.getKey).
+ *  The value is the filled grid. Only fills are cached: whether a region can be filled also depends on the complete entries
+ *  outside of it (their words can not be used again), which may have changed by the next fill.
+ *  The cache is shared between threads (the fill and the progress updates), so every method is synchronized.
+ */
+public class RegionCache {
+
+    private LinkedHashMap<String, Grid> cache; // iterates from least to most recently used
+    private int maxRegions;
+
+    public RegionCache(int maxRegions){
+        this.cache = new LinkedHashMap<String, Grid>(16, 0.75f, true);
+        this.maxRegions = maxRegions;
+    }
+
+    public synchronized boolean containsKey(String key){
+        return cache.containsKey(key);
+    }
+
+    /**
+     * @return - the filled grid for the key (and marks it as most recently used), null if it is not cached
+     */
+    public synchronized Grid get(String key){
+        return cache.get(key);
+    }
+
+    public synchronized void put(String key, Grid filled){
+        cache.put(key, filled);
+        Iterator<String> iterator = cache.keySet().iterator();
+        while(cache.size() > maxRegions && iterator.hasNext()){
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    public synchronized int size(){
+        return cache.size();
+    }
+
+}
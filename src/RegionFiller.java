@@ -0,0 +1,639 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ *  CLASS: RegionFiller
+ *  PURPOSE: Fills a crossword by splitting it into independent regions and filling the regions separately, in parallel.
+ *  AUTHOR: Nathan Poppe
+ *
+ *  Many templates have parts that are only joined to the rest of the grid by one or two boxes (eg. the corners of a 15x15).
+ *  The open entries are the nodes of a graph and every empty box where two of them cross is an edge. Once the letter of
+ *  such a box is chosen its two entries no longer depend on each other, so the box's edge can be cut.
+ *      - the cut boxes are the articulation boxes of the graph: its bridges, found with one depth first search (Tarjan's
+ *        low links), that leave both sides at least MIN_REGION_SLOTS entries. If there are none, pairs of boxes that are
+ *        only a cut together are found by cutting each edge in turn and looking for the bridges it leaves.
+ *      - the letters of the cut boxes are tried in the order that leaves their entries the most words (with a little
+ *        seeded noise, so different seeds try different letters) and only if the domains stay consistent
+ *        (see SlotDomains.restrict). The letters are tried on a copy of the grid, the crossword is only written once
+ *        every region is filled.
+ *      - each region is filled on its own copy of the crossword by a CrosswordFiller limited to the region
+ *  The fill of every region is cached on the region's letters in a RegionCache, which can be kept between fills (see
+ *  setCache): trying other letters in one cut box does not refill the regions that do not touch it, and filling the same
+ *  crossword again only fills the regions that changed. The key only holds the region's own letters, so a cached fill is
+ *  checked against the words of the complete entries (and the other regions) and refilled if it repeats one of them.
+ *  Regions that could not be filled are only remembered for one fill.
+ *  If the crossword can not be split (or no cut letters work) the whole crossword is filled by a PortfolioFiller.
+ */
+public class RegionFiller implements Filler {
+
+    private final static int MIN_REGION_SLOTS = 4; // smaller parts are not worth splitting off
+    private final static int MAX_CUT_BOXES = 4; // every cut box multiplies the letters to try
+    private final static int MAX_CUT_TRIES = 20; // the number of cut letter combinations to try before filling the whole crossword
+    private final static long REGION_NODE_LIMIT = 20000; // a region that takes longer is treated as unfillable
+    private final static double CUT_LETTER_NOISE = 0.5; // the most a cut letter's score is randomly raised by (as a fraction)
+    private final static int DEFAULT_CACHE_SIZE = 256; // regions
+
+    private Crossword crossword;
+    private WordFinder wordFinder;
+    private boolean useRegWordList;
+    private long seed;
+    private Random random; // the noise of the cut letter order
+    private int numThreads;
+    private long timeLimit; // milliseconds, 0 for no limit
+    private long deadline; // System.nanoTime() when the fill runs out of time
+
+    private SlotDomains domains;
+    private Grid letters; // the crossword's letters with the cut letters being tried
+    private ArrayList<int[]> edges; // slot, position of every empty box where two open slots cross (slot is the across one)
+    private int[][] edgesOfSlot; // the edges of each slot
+    private ArrayList<int[]> cutEdges; // the edges of the cut boxes
+    private volatile ArrayList<boolean[][]> regions; // the boxes of each region (the cut boxes are in every region they touch)
+    private RegionCache cache;
+    private Set<String> unfillableKeys = ConcurrentHashMap.newKeySet(); // the regions that could not be filled in this fill
+    private volatile String[] keys; // the cache keys of the regions for the cut letters being tried
+    private Grid bestPartial; // the most letters any try of the cut letters filled in, null if none
+    private int numTries;
+    private ExecutorService executor;
+    private ConcurrentHashMap<CrosswordFiller, boolean[][]> runningFillers = new ConcurrentHashMap<CrosswordFiller, boolean[][]>();
+    private AtomicLong numNodes = new AtomicLong(); // placed by the region fillers that are done
+    private volatile PortfolioFiller wholeFiller; // the filler of the whole crossword, if one is running
+    private volatile boolean isCancelled;
+
+    /**
+     * @param crossword - the crossword to fill (its blocks and letters are kept)
+     * @param wordFinder - finds the words for each entry
+     * @param useRegWordList - true to fill with the regular dictionary, false for the large dictionary
+     * @param seed - the same seed gives the same fill (with the same cache and 1 thread)
+     */
+    public RegionFiller(Crossword crossword, WordFinder wordFinder, boolean useRegWordList, long seed){
+        this.crossword = crossword;
+        this.wordFinder = wordFinder;
+        this.useRegWordList = useRegWordList;
+        this.seed = seed;
+        this.random = new Random(seed);
+        this.numThreads = Runtime.getRuntime().availableProcessors();
+        this.cache = new RegionCache(DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * Sets the number of threads: the regions filled at once, and the fillers raced on the whole crossword when it can
+     * not be split (one per core by default)
+     */
+    public void setNumThreads(int numThreads){
+        this.numThreads = Math.max(1, numThreads);
+    }
+
+    /**
+     * Uses a cache that is kept between fills (eg. every autofill of the same crossword), instead of one for this fill only
+     */
+    public void setCache(RegionCache cache){
+        this.cache = cache;
+    }
+
+    public void setTimeLimit(long timeLimit){
+        this.timeLimit = timeLimit;
+    }
+
+    /**
+     * Fills the crossword
+     * @return - true if every entry was filled (the crossword is left unchanged otherwise)
+     */
+    public boolean fill(){
+        deadline = System.nanoTime() + timeLimit * 1000000;
+        letters = new Grid(crossword.getGrid());
+        domains = wordFinder.createSlotDomains(useRegWordList, crossword.getSlotTable(), letters);
+        if(!domains.isConsistent())
+            return false;
+        findRegions();
+        if(regions.size() > 1){
+            executor = Executors.newFixedThreadPool(Math.min(numThreads, regions.size()), runnable -> {
+                Thread thread = new Thread(runnable, "region-worker");
+                thread.setDaemon(true);
+                return thread;
+            });
+            try{
+                numTries = 0;
+                if(fillCuts(0))
+                    return true;
+            }
+            finally{
+                executor.shutdownNow();
+            }
+        }
+        if(isCancelled || isOutOfTime())
+            return false;
+        PortfolioFiller filler = new PortfolioFiller(crossword, wordFinder, useRegWordList, seed, numThreads);
+        filler.setTimeLimit(getTimeLeft());
+        wholeFiller = filler;
+        if(isCancelled)
+            filler.cancel();
+        return filler.fill();
+    }
+
+    /**
+     * Stops the fill as soon as possible (can be called from any thread), fill() then returns false
+     */
+    public void cancel(){
+        isCancelled = true;
+        for(CrosswordFiller filler : runningFillers.keySet()){
+            filler.cancel();
+        }
+        PortfolioFiller filler = wholeFiller;
+        if(filler != null)
+            filler.cancel();
+    }
+
+    /**
+     * @return - the number of independent regions the crossword was split into (1 if it could not be split)
+     */
+    public int getNumRegions(){
+        ArrayList<boolean[][]> found = regions;
+        return found == null ? 0 : found.size();
+    }
+
+    /**
+     * @return - the words placed by every filler so far (can be called from any thread)
+     */
+    public long getNumNodes(){
+        long nodes = numNodes.get();
+        for(CrosswordFiller filler : runningFillers.keySet()){
+            nodes += filler.getNumNodes();
+        }
+        PortfolioFiller filler = wholeFiller;
+        return filler == null ? nodes : nodes + filler.getNumNodes();
+    }
+
+    /**
+     * @return - the cut letters being tried with the regions filled so far (can be called from any thread), null before
+     *           the fill has started
+     */
+    public Grid getProgressGrid(){
+        PortfolioFiller filler = wholeFiller;
+        if(filler != null)
+            return filler.getProgressGrid();
+        ArrayList<boolean[][]> found = regions;
+        String[] regionKeys = keys;
+        if(found == null || letters == null)
+            return null;
+        Grid progress = new Grid(letters);
+        for(int region = 0; regionKeys != null && region < regionKeys.length; region++){
+            Grid filled = cache.get(regionKeys[region]);
+            if(filled != null)
+                copyRegion(found.get(region), filled, progress);
+        }
+        for(Map.Entry<CrosswordFiller, boolean[][]> running : runningFillers.entrySet()){
+            Grid grid = running.getKey().getProgressGrid();
+            if(grid != null)
+                copyRegion(running.getValue(), grid, progress);
+        }
+        return progress;
+    }
+
+    /**
+     * Writes the most complete fill found into the crossword (for a fill that ran out of time)
+     * @return - false if no word was placed
+     */
+    public boolean writeBestPartial(){
+        PortfolioFiller filler = wholeFiller;
+        if(filler != null && filler.writeBestPartial())
+            return true;
+        if(bestPartial == null)
+            return false;
+        crossword.copyLetters(bestPartial, false);
+        return true;
+    }
+
+    private long getTimeLeft(){
+        if(timeLimit == 0)
+            return 0;
+        return Math.max(1, (deadline - System.nanoTime()) / 1000000);
+    }
+
+    private boolean isOutOfTime(){
+        return timeLimit != 0 && System.nanoTime() >= deadline;
+    }
+
+    /**
+     * Finds the cut boxes (the most even splits first), then the regions they split the open entries into
+     */
+    private void findRegions(){
+        findEdges();
+        boolean[] isCut = new boolean[edges.size()];
+        cutEdges = new ArrayList<int[]>();
+        while(cutEdges.size() < MAX_CUT_BOXES){
+            // one box: a bridge
+            int[] sides = findBridges(isCut);
+            int best = -1;
+            for(int edge = 0; edge < edges.size(); edge++){
+                if(sides[edge] >= MIN_REGION_SLOTS && (best == -1 || sides[edge] > sides[best]))
+                    best = edge;
+            }
+            if(best != -1){
+                cut(isCut, best);
+                continue;
+            }
+            // two boxes: an edge that is not a bridge, and an edge that is a bridge once the first one is cut
+            if(cutEdges.size() + 2 > MAX_CUT_BOXES)
+                break;
+            int bestFirst = -1, bestSecond = -1, bestSide = -1;
+            for(int first = 0; first < edges.size(); first++){
+                if(isCut[first] || sides[first] != -1)
+                    continue;
+                isCut[first] = true;
+                int[] pairSides = findBridges(isCut);
+                isCut[first] = false;
+                for(int second = first + 1; second < edges.size(); second++){
+                    if(!isCut[second] && sides[second] == -1 && pairSides[second] >= MIN_REGION_SLOTS && pairSides[second] > bestSide){
+                        bestFirst = first;
+                        bestSecond = second;
+                        bestSide = pairSides[second];
+                    }
+                }
+            }
+            if(bestFirst == -1)
+                break;
+            cut(isCut, bestFirst);
+            cut(isCut, bestSecond);
+        }
+
+        int[] regionOfSlot = new int[domains.getNumSlots()];
+        int numRegions = labelRegions(isCut, regionOfSlot);
+        ArrayList<boolean[][]> found = new ArrayList<boolean[][]>();
+        for(int region = 0; region < numRegions; region++){
+            found.add(new boolean[crossword.getHeight()][crossword.getWidth()]);
+        }
+        for(int slot = 0; slot < regionOfSlot.length; slot++){
+            if(regionOfSlot[slot] == -1)
+                continue;
+            Slot entry = domains.getSlot(slot);
+            for(int position = 0; position < entry.getLength(); position++){
+                found.get(regionOfSlot[slot])[entry.getRow(position)][entry.getCol(position)] = true;
+            }
+        }
+        regions = found;
+    }
+
+    private void cut(boolean[] isCut, int edge){
+        isCut[edge] = true;
+        cutEdges.add(edges.get(edge));
+    }
+
+    /**
+     * Finds the edges: every empty box where two open slots cross
+     */
+    private void findEdges(){
+        int numSlots = domains.getNumSlots();
+        edges = new ArrayList<int[]>();
+        int[] numEdges = new int[numSlots];
+        for(int slot = 0; slot < numSlots; slot++){
+            Slot entry = domains.getSlot(slot);
+            for(int position = 0; entry.isAcross() && !domains.isFixed(slot) && position < entry.getLength(); position++){
+                int crossing = domains.getCrossing(slot, position);
+                if(crossing != -1 && !domains.isFixed(crossing) && !letters.hasLetter(entry.getRow(position), entry.getCol(position))){
+                    edges.add(new int[]{slot, position});
+                    numEdges[slot]++;
+                    numEdges[crossing]++;
+                }
+            }
+        }
+        edgesOfSlot = new int[numSlots][];
+        for(int slot = 0; slot < numSlots; slot++){
+            edgesOfSlot[slot] = new int[numEdges[slot]];
+            numEdges[slot] = 0;
+        }
+        for(int edge = 0; edge < edges.size(); edge++){
+            int slot = edges.get(edge)[0], crossing = domains.getCrossing(slot, edges.get(edge)[1]);
+            edgesOfSlot[slot][numEdges[slot]++] = edge;
+            edgesOfSlot[crossing][numEdges[crossing]++] = edge;
+        }
+    }
+
+    // the slot at the other end of the edge
+    private int getOtherSlot(int edge, int slot){
+        int[] box = edges.get(edge);
+        return box[0] == slot ? domains.getCrossing(box[0], box[1]) : box[0];
+    }
+
+    /**
+     * Finds the bridges of the graph (the edges that are the only link between two parts of it) with one depth first
+     * search: the edge from a slot to its child in the search tree is a bridge if no edge from the child's subtree reaches
+     * back above the child (its low link is below the child in the search order)
+     * @param isCut - the edges that are already cut (left out of the graph)
+     * @return - for every edge, the number of slots on its smaller side if it is a bridge, -1 if it is not
+     */
+    private int[] findBridges(boolean[] isCut){
+        int numSlots = domains.getNumSlots();
+        int[] order = new int[numSlots]; // the search order (from 1), 0 if not reached yet
+        int[] low = new int[numSlots]; // the lowest order reachable from the slot's subtree with one edge that is not a tree edge
+        int[] subtreeSize = new int[numSlots];
+        int[] parentEdge = new int[numSlots];
+        int[] rootOf = new int[numSlots];
+        int[] nextEdge = new int[numSlots]; // the next edge of the slot to follow
+        int[] stack = new int[numSlots];
+        int[] bridgeChild = new int[edges.size()]; // the slot below the bridge, -1 if the edge is not a bridge
+        Arrays.fill(bridgeChild, -1);
+        int count = 0;
+        for(int root = 0; root < numSlots; root++){
+            if(domains.isFixed(root) || order[root] != 0)
+                continue;
+            int size = 0;
+            stack[size++] = root;
+            order[root] = low[root] = ++count;
+            subtreeSize[root] = 1;
+            parentEdge[root] = -1;
+            rootOf[root] = root;
+            while(size > 0){
+                int slot = stack[size - 1];
+                if(nextEdge[slot] < edgesOfSlot[slot].length){
+                    int edge = edgesOfSlot[slot][nextEdge[slot]++];
+                    if(isCut[edge] || edge == parentEdge[slot])
+                        continue;
+                    int other = getOtherSlot(edge, slot);
+                    if(order[other] == 0){
+                        order[other] = low[other] = ++count;
+                        subtreeSize[other] = 1;
+                        parentEdge[other] = edge;
+                        rootOf[other] = root;
+                        stack[size++] = other;
+                    }
+                    else{
+                        low[slot] = Math.min(low[slot], order[other]);
+                    }
+                }
+                else{
+                    size--;
+                    if(size > 0){
+                        int parent = stack[size - 1];
+                        low[parent] = Math.min(low[parent], low[slot]);
+                        subtreeSize[parent] += subtreeSize[slot];
+                        if(low[slot] > order[parent])
+                            bridgeChild[parentEdge[slot]] = slot;
+                    }
+                }
+            }
+        }
+        int[] sides = new int[edges.size()];
+        for(int edge = 0; edge < edges.size(); edge++){
+            int child = bridgeChild[edge];
+            sides[edge] = child == -1 ? -1 : Math.min(subtreeSize[child], subtreeSize[rootOf[child]] - subtreeSize[child]);
+        }
+        return sides;
+    }
+
+    /**
+     * Labels every open slot with its region: the slots connected to it through edges that are not cut
+     * @param regionOfSlot - set to the region of each slot (-1 for slots that are already complete)
+     * @return - the number of regions
+     */
+    private int labelRegions(boolean[] isCut, int[] regionOfSlot){
+        Arrays.fill(regionOfSlot, -1);
+        int numRegions = 0;
+        int[] stack = new int[regionOfSlot.length];
+        for(int start = 0; start < regionOfSlot.length; start++){
+            if(domains.isFixed(start) || regionOfSlot[start] != -1)
+                continue;
+            int size = 0;
+            stack[size++] = start;
+            regionOfSlot[start] = numRegions;
+            while(size > 0){
+                int slot = stack[--size];
+                for(int edge : edgesOfSlot[slot]){
+                    int other = getOtherSlot(edge, slot);
+                    if(!isCut[edge] && regionOfSlot[other] == -1){
+                        regionOfSlot[other] = numRegions;
+                        stack[size++] = other;
+                    }
+                }
+            }
+            numRegions++;
+        }
+        return numRegions;
+    }
+
+    /**
+     * Tries the letters of the cut boxes from the index on, then fills the regions
+     * @return - true if the crossword was filled
+     */
+    private boolean fillCuts(int index){
+        if(isCancelled || isOutOfTime() || numTries >= MAX_CUT_TRIES)
+            return false;
+        if(index == cutEdges.size()){
+            numTries++;
+            return fillRegions();
+        }
+        int across = cutEdges.get(index)[0], position = cutEdges.get(index)[1];
+        int down = domains.getCrossing(across, position);
+        int downPosition = domains.getCrossingPosition(across, position);
+        Slot entry = domains.getSlot(across);
+        int row = entry.getRow(position), col = entry.getCol(position);
+
+        // the letters that leave the fewest words in the emptier of the two slots are tried last
+        Integer[] order = new Integer[DictionaryCompiler.NUM_LETTERS];
+        int[] supports = new int[order.length];
+        double[] scores = new double[order.length];
+        for(int letter = 0; letter < order.length; letter++){
+            supports[letter] = Math.min(domains.getSupport(across, position, letter), domains.getSupport(down, downPosition, letter));
+            scores[letter] = supports[letter] * (1 + CUT_LETTER_NOISE * random.nextDouble());
+            order[letter] = letter;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(scores[b], scores[a]));
+
+        for(int letter : order){
+            if(supports[letter] == 0)
+                break;
+            int mark = domains.mark();
+            char[] pattern = new char[entry.getLength()];
+            Arrays.fill(pattern, '_');
+            pattern[position] = (char)('a' + letter);
+            if(domains.restrict(across, new String(pattern))){
+                letters.setLetter(row, col, pattern[position]);
+                boolean isFilled = fillCuts(index + 1);
+                if(isFilled)
+                    return true;
+                letters.setLetter(row, col, Grid.NO_LETTER);
+            }
+            domains.undo(mark);
+            if(isCancelled || isOutOfTime() || numTries >= MAX_CUT_TRIES)
+                return false;
+        }
+        return false;
+    }
+
+    /**
+     * Fills every region (with the cut letters being tried) in parallel, then copies the fills into the crossword
+     * @return - true if every region was filled
+     */
+    private boolean fillRegions(){
+        String[] regionKeys = new String[regions.size()];
+        Grid[] regionFills = new Grid[regions.size()]; // null if the region could not be filled
+        ArrayList<Future<Grid>> futures = new ArrayList<Future<Grid>>();
+        ArrayList<Integer> filling = new ArrayList<Integer>();
+        for(int region = 0; region < regions.size(); region++){
+            regionKeys[region] = getKey(regions.get(region));
+            regionFills[region] = cache.get(regionKeys[region]);
+            if(regionFills[region] == null && !unfillableKeys.contains(regionKeys[region])){
+                filling.add(region);
+                futures.add(executor.submit(createFill(regions.get(region), letters, regionKeys[region])));
+            }
+        }
+        keys = regionKeys;
+        try{
+            for(int i = 0; i < futures.size(); i++){
+                regionFills[filling.get(i)] = futures.get(i).get();
+            }
+        }
+        catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        catch(ExecutionException e){
+            System.out.println("Could not fill crossword region!");
+            return false;
+        }
+        boolean isEveryRegionFilled = true;
+        for(Grid regionFill : regionFills){
+            isEveryRegionFilled &= regionFill != null;
+        }
+        if(!isEveryRegionFilled){
+            keepBestPartial(regionFills);
+            return false;
+        }
+
+        // regions are filled separately, so two of them can use the same word: refill the later region around the others.
+        // A cached fill can also use a word that has since been written into a complete entry, so those count as used.
+        Grid filled = new Grid(letters);
+        HashSet<String> usedWords = getFixedWords();
+        for(int region = 0; region < regions.size(); region++){
+            Grid regionLetters = regionFills[region];
+            if(!addWords(regions.get(region), regionLetters, usedWords)){
+                try{
+                    regionLetters = createFill(regions.get(region), filled, null).call();
+                }
+                catch(Exception e){
+                    regionLetters = null;
+                }
+                if(regionLetters == null)
+                    return false;
+                addWords(regions.get(region), regionLetters, usedWords);
+            }
+            copyRegion(regions.get(region), regionLetters, filled);
+        }
+        crossword.copyLetters(filled, false);
+        return true;
+    }
+
+    /**
+     * Keeps the cut letters with the regions that did fill, if that is the most letters any try filled in
+     */
+    private void keepBestPartial(Grid[] regionFills){
+        Grid partial = new Grid(letters);
+        for(int region = 0; region < regions.size(); region++){
+            if(regionFills[region] != null)
+                copyRegion(regions.get(region), regionFills[region], partial);
+        }
+        if(bestPartial == null || partial.countLetters() > bestPartial.countLetters())
+            bestPartial = partial;
+    }
+
+    /**
+     * @param base - the letters to fill around
+     * @param key - the key to cache the fill under, null to not cache it
+     * @return - fills the region on a copy of the crossword, gives the copy's grid (null if it could not be filled)
+     */
+    private Callable<Grid> createFill(boolean[][] region, Grid base, String key){
+        Crossword copy = new Crossword(crossword);
+        copy.getGrid().copyLetters(base, false);
+        return () -> {
+            CrosswordFiller filler = new CrosswordFiller(copy, wordFinder, useRegWordList, seed);
+            filler.setRegion(region);
+            filler.setNodeLimit(REGION_NODE_LIMIT);
+            filler.setTimeLimit(getTimeLeft());
+            runningFillers.put(filler, region);
+            if(isCancelled)
+                filler.cancel();
+            boolean isFilled = filler.fill();
+            Grid filled = isFilled ? copy.getGrid() : null;
+            // a region that could not be filled is only skipped for the rest of this fill: it could fill once the complete
+            // entries elsewhere change (their words are left out of every entry). One that ran out of time (or was
+            // cancelled) might still be fillable, so it is not skipped at all.
+            if(key != null && isFilled)
+                cache.put(key, filled);
+            else if(key != null && !filler.isOutOfTime() && !isCancelled)
+                unfillableKeys.add(key);
+            numNodes.addAndGet(filler.getNumNodes());
+            runningFillers.remove(filler);
+            return filled;
+        };
+    }
+
+    // the region's letters (and where it is) with the dictionary, so the same region with the same letters is only filled once
+    private String getKey(boolean[][] region){
+        StringBuilder key = new StringBuilder((useRegWordList ? "R" : "L") + crossword.getWidth() + ":");
+        for(int row = 0; row < region.length; row++){
+            for(int col = 0; col < region[row].length; col++){
+                key.append(region[row][col] ? letters.getLetter(row, col) : ' ');
+            }
+        }
+        return key.toString();
+    }
+
+    /**
+     * @return - the words of the entries that were complete before the fill
+     */
+    private HashSet<String> getFixedWords(){
+        HashSet<String> fixedWords = new HashSet<String>();
+        for(int slot = 0; slot < domains.getNumSlots(); slot++){
+            if(!domains.isFixed(slot))
+                continue;
+            Slot entry = domains.getSlot(slot);
+            String word = "";
+            for(int position = 0; position < entry.getLength(); position++){
+                word += letters.getLetter(entry.getRow(position), entry.getCol(position));
+            }
+            fixedWords.add(word);
+        }
+        return fixedWords;
+    }
+
+    /**
+     * Adds the words of the region's entries to the used words
+     * @return - false if one of them was already used
+     */
+    private boolean addWords(boolean[][] region, Grid filled, HashSet<String> usedWords){
+        boolean isUnique = true;
+        for(int slot = 0; slot < domains.getNumSlots(); slot++){
+            Slot entry = domains.getSlot(slot);
+            String word = "";
+            boolean isInRegion = true;
+            for(int position = 0; position < entry.getLength(); position++){
+                isInRegion &= region[entry.getRow(position)][entry.getCol(position)];
+                word += filled.getLetter(entry.getRow(position), entry.getCol(position));
+            }
+            if(isInRegion && !domains.isFixed(slot))
+                isUnique &= usedWords.add(word);
+        }
+        return isUnique;
+    }
+
+    // copies the letters inside the region
+    private void copyRegion(boolean[][] region, Grid from, Grid to){
+        for(int row = 0; row < region.length; row++){
+            for(int col = 0; col < region[row].length; col++){
+                if(region[row][col])
+                    to.setLetter(row, col, from.getLetter(row, col));
+            }
+        }
+    }
+
+}
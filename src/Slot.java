@@ -0,0 +1,66 @@
+
+/**
+ *  CLASS: Slot
+ *  PURPOSE: One across or down entry of a crossword: where it starts, which way it goes and how long it is.
+ *  AUTHOR: Nathan Poppe
+ */
+public class Slot {
+
+    private int number; // the clue number
+    private boolean isAcross;
+    private int row, col; // the first box of the entry
+    private int length;
+    private int clueIndex; // the index of the entry's clue in the crossword's across/down clues, -1 if it is not known
+
+    public Slot(int number, boolean isAcross, int row, int col, int length){
+        this(number, isAcross, row, col, length, -1);
+    }
+
+    public Slot(int number, boolean isAcross, int row, int col, int length, int clueIndex){
+        this.number = number;
+        this.isAcross = isAcross;
+        this.row = row;
+        this.col = col;
+        this.length = length;
+        this.clueIndex = clueIndex;
+    }
+
+    public int getNumber(){
+        return number;
+    }
+
+    public boolean isAcross(){
+        return isAcross;
+    }
+
+    public int getRow(){
+        return row;
+    }
+
+    public int getCol(){
+        return col;
+    }
+
+    public int getLength(){
+        return length;
+    }
+
+    public int getClueIndex(){
+        return clueIndex;
+    }
+
+    /**
+     * @return - the row of the box at the given position of the entry
+     */
+    public int getRow(int position){
+        return isAcross ? row : row + position;
+    }
+
+    /**
+     * @return - the column of the box at the given position of the entry
+     */
+    public int getCol(int position){
+        return isAcross ? col + position : col;
+    }
+
+}
@@ -0,0 +1,440 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ *  CLASS: SlotDomains
+ *  PURPOSE: The constraint propagation core of autofill: the words that still fit each entry of a crossword, kept
+ *           consistent with the words that still fit the entries crossing it.
+ *  AUTHOR: Nathan Poppe
+ *
+ *  The entries (slots) are found from the crossword's numbers, every across/down run of 2+ open boxes is a slot.
+ *  A slot's domain is a bitset over the ordinals of its length (the same bitsets WordIndex answers patterns with), and for
+ *  every position of the slot it keeps how many domain words have each letter there (the letter supports).
+ *
+ *  Two crossing slots must agree on the letter of their shared box. A letter with no support in one slot is removed from
+ *  the other slot with one AND against the WordIndex letter bitset (AC-3 style revision), and only the supports of the
+ *  removed words are updated. Revisions are repeated until nothing changes or some slot has no words left.
+ *  No word is used in two slots: assigning a word removes it from every other slot of its length.
+ *
+ *  Slots that are already complete when the domains are created are left out (their letters are in their crossing slots'
+ *  patterns already), so they do not need to be dictionary words.
+ *
+ *  Every change can be undone: call mark() before a change and undo(mark) to restore everything to how it was.
+ */
+public class SlotDomains {
+
+    private final static int NUM_LETTER_CODES = DictionaryCompiler.NUM_LETTERS + 1; // a-z and OTHER_LETTER
+
+    private WordIndex wordIndex;
+    private WordArena wordArena;
+    private int dictionaryNum;
+
+    private Slot[] slots;
+    private int[][] crossings; // crossings[slot][position]: the crossing slot at that box, -1 if there is none
+    private int[][] crossingPositions; // crossingPositions[slot][position]: the box's position in the crossing slot
+    private boolean[] isFixed; // complete before the fill started (no domain)
+    private boolean[] isAssigned; // a word has been assigned to the slot
+    private long[][] domains; // domains[slot]: one bit per ordinal of the slot's length
+    private int[] sizes; // the number of words in each domain
+    private int[][] supports; // supports[slot][position * NUM_LETTER_CODES + letterIndex]
+    private boolean isConsistent; // false once some slot has no words left
+    private int failedSlot; // the last slot that was left without words, -1 if there is none
+
+    // the trail: the state of a slot before it was first changed after a mark()
+    private ArrayList<Integer> trailSlots;
+    private ArrayList<long[]> trailDomains;
+    private ArrayList<int[]> trailSupports;
+    private ArrayList<Integer> trailSizes;
+    private ArrayList<Boolean> trailAssigned;
+    private ArrayList<Boolean> trailConsistent;
+    private int[] savedStamps; // the stamp of the mark the slot was last saved for
+    private int stamp;
+
+    private long numRevisions;
+
+    /**
+     * Finds the slots and the words that fit them, then makes the domains consistent
+     * @param wordIndex - the dictionaries
+     * @param dictionaryNum - the dictionary to fill from
+     * @param slotTable - the crossword's entries
+     * @param grid - the crossword's blocks and letters
+     */
+    public SlotDomains(WordIndex wordIndex, int dictionaryNum, SlotTable slotTable, Grid grid){
+        this.wordIndex = wordIndex;
+        this.wordArena = wordIndex.getWordArena();
+        this.dictionaryNum = dictionaryNum;
+        findSlots(slotTable, grid);
+        findCrossings(grid);
+
+        isFixed = new boolean[slots.length];
+        isAssigned = new boolean[slots.length];
+        domains = new long[slots.length][];
+        sizes = new int[slots.length];
+        supports = new int[slots.length][];
+        savedStamps = new int[slots.length];
+        trailSlots = new ArrayList<Integer>();
+        trailDomains = new ArrayList<long[]>();
+        trailSupports = new ArrayList<int[]>();
+        trailSizes = new ArrayList<Integer>();
+        trailAssigned = new ArrayList<Boolean>();
+        trailConsistent = new ArrayList<Boolean>();
+
+        isConsistent = true;
+        failedSlot = -1;
+        for(int slot = 0; slot < slots.length; slot++){
+            String pattern = getPattern(slot, grid);
+            if(pattern.indexOf('_') == -1){
+                isFixed[slot] = true;
+                continue;
+            }
+            domains[slot] = wordIndex.findWordBits(dictionaryNum, pattern, false);
+            for(int position = 0; position < slots[slot].getLength(); position++){
+                wordIndex.removeLetter(domains[slot], slots[slot].getLength(), position, DictionaryCompiler.OTHER_LETTER); // only a-z words fit the boxes
+            }
+            countSupports(slot);
+        }
+        for(int slot = 0; slot < slots.length; slot++){
+            if(isFixed[slot])
+                removeFixedWord(getPattern(slot, grid));
+        }
+        ArrayDeque<Integer> queue = new ArrayDeque<Integer>();
+        for(int slot = 0; slot < slots.length; slot++){
+            if(!isFixed[slot] && sizes[slot] == 0){
+                isConsistent = false;
+                failedSlot = slot;
+            }
+            if(!isFixed[slot])
+                queue.add(slot);
+        }
+        if(isConsistent)
+            propagate(queue);
+    }
+
+    /**
+     * Finds every across/down entry of 2+ boxes (row by row, across before down)
+     */
+    private void findSlots(SlotTable slotTable, Grid grid){
+        ArrayList<Slot> slotList = new ArrayList<Slot>();
+        for(int row = 0; row < grid.getNumRows(); row++){
+            for(int col = 0; col < grid.getNumCols(); col++){
+                if(grid.isBlock(row, col))
+                    continue;
+                Slot across = slotTable.getSlotAt(row, col, true);
+                if(across.getCol() == col && across.getLength() > 1)
+                    slotList.add(across);
+                Slot down = slotTable.getSlotAt(row, col, false);
+                if(down.getRow() == row && down.getLength() > 1)
+                    slotList.add(down);
+            }
+        }
+        slots = slotList.toArray(new Slot[slotList.size()]);
+    }
+
+    private void findCrossings(Grid grid){
+        int numCols = grid.getNumCols();
+        int[] acrossSlots = new int[grid.getNumBoxes()]; // the across slot at each box (+ 1, 0 if there is none)
+        int[] acrossPositions = new int[grid.getNumBoxes()];
+        for(int slot = 0; slot < slots.length; slot++){
+            for(int position = 0; slots[slot].isAcross() && position < slots[slot].getLength(); position++){
+                acrossSlots[slots[slot].getRow(position) * numCols + slots[slot].getCol(position)] = slot + 1;
+                acrossPositions[slots[slot].getRow(position) * numCols + slots[slot].getCol(position)] = position;
+            }
+        }
+        crossings = new int[slots.length][];
+        crossingPositions = new int[slots.length][];
+        for(int slot = 0; slot < slots.length; slot++){
+            crossings[slot] = new int[slots[slot].getLength()];
+            crossingPositions[slot] = new int[slots[slot].getLength()];
+            for(int position = 0; position < slots[slot].getLength(); position++){
+                crossings[slot][position] = -1;
+            }
+        }
+        for(int slot = 0; slot < slots.length; slot++){
+            for(int position = 0; !slots[slot].isAcross() && position < slots[slot].getLength(); position++){
+                int box = slots[slot].getRow(position) * numCols + slots[slot].getCol(position);
+                int acrossSlot = acrossSlots[box] - 1;
+                if(acrossSlot != -1){
+                    crossings[slot][position] = acrossSlot;
+                    crossingPositions[slot][position] = acrossPositions[box];
+                    crossings[acrossSlot][acrossPositions[box]] = slot;
+                    crossingPositions[acrossSlot][acrossPositions[box]] = position;
+                }
+            }
+        }
+    }
+
+    private String getPattern(int slot, Grid grid){
+        char[] pattern = new char[slots[slot].getLength()];
+        for(int position = 0; position < pattern.length; position++){
+            pattern[position] = Character.toLowerCase(grid.getLetter(slots[slot].getRow(position), slots[slot].getCol(position)));
+        }
+        return new String(pattern);
+    }
+
+    // a word that is already in the crossword can not be used again
+    private void removeFixedWord(String word){
+        int[] ordinals = WordIndex.getOrdinals(wordIndex.findWordBits(dictionaryNum, word, false));
+        for(int slot = 0; ordinals.length == 1 && slot < slots.length; slot++){
+            if(!isFixed[slot] && slots[slot].getLength() == word.length() && hasWord(slot, ordinals[0]))
+                removeWord(slot, ordinals[0]);
+        }
+    }
+
+    /**
+     * Recounts the letter supports of the slot from its domain
+     */
+    private void countSupports(int slot){
+        int length = slots[slot].getLength();
+        supports[slot] = new int[length * NUM_LETTER_CODES];
+        sizes[slot] = 0;
+        long[] domain = domains[slot];
+        for(int i = 0; i < domain.length; i++){
+            long bits = domain[i];
+            while(bits != 0){
+                int ordinal = (i << 6) + Long.numberOfTrailingZeros(bits);
+                for(int position = 0; position < length; position++){
+                    supports[slot][position * NUM_LETTER_CODES + getLetterIndex(slot, ordinal, position)]++;
+                }
+                sizes[slot]++;
+                bits &= bits - 1;
+            }
+        }
+    }
+
+    /**
+     * Starts a new change, see undo
+     * @return - the mark to undo back to
+     */
+    public int mark(){
+        stamp++;
+        return trailSlots.size();
+    }
+
+    /**
+     * Undoes every change made since the mark was taken
+     */
+    public void undo(int mark){
+        while(trailSlots.size() > mark){
+            int last = trailSlots.size() - 1;
+            int slot = trailSlots.remove(last);
+            domains[slot] = trailDomains.remove(last);
+            supports[slot] = trailSupports.remove(last);
+            sizes[slot] = trailSizes.remove(last);
+            isAssigned[slot] = trailAssigned.remove(last);
+            isConsistent = trailConsistent.remove(last);
+            savedStamps[slot] = 0;
+        }
+        stamp++; // the restored slots have to be saved again before their next change
+    }
+
+    // saves the slot onto the trail the first time it changes after a mark()
+    private void save(int slot){
+        if(savedStamps[slot] == stamp)
+            return;
+        savedStamps[slot] = stamp;
+        trailSlots.add(slot);
+        trailDomains.add(domains[slot].clone());
+        trailSupports.add(supports[slot].clone());
+        trailSizes.add(sizes[slot]);
+        trailAssigned.add(isAssigned[slot]);
+        trailConsistent.add(isConsistent);
+    }
+
+    /**
+     * Assigns the word to the slot, removes it from every other slot and propagates the change
+     * @return - false if some slot has no words left
+     */
+    public boolean assign(int slot, int ordinal){
+        save(slot);
+        isAssigned[slot] = true;
+        Arrays.fill(domains[slot], 0);
+        domains[slot][ordinal >>> 6] = 1L << ordinal;
+        countSupports(slot);
+
+        ArrayDeque<Integer> queue = new ArrayDeque<Integer>();
+        queue.add(slot);
+        for(int other = 0; other < slots.length; other++){
+            if(other != slot && !isFixed[other] && slots[other].getLength() == slots[slot].getLength() && hasWord(other, ordinal)){
+                removeWord(other, ordinal);
+                if(sizes[other] == 0)
+                    return fail(other);
+                queue.add(other);
+            }
+        }
+        return propagate(queue);
+    }
+
+    /**
+     * Keeps only the slot's words that match the pattern ('_' any letter, '@' any vowel, '#' any consonant) and propagates
+     * the change. Used to check if a part of the crossword is still fillable with some letters in it.
+     * @return - false if some slot has no words left
+     */
+    public boolean restrict(int slot, String pattern){
+        long[] matches = wordIndex.findWordBits(dictionaryNum, pattern.toLowerCase().trim(), false);
+        long[] removed = domains[slot].clone();
+        for(int i = 0; i < removed.length; i++){
+            removed[i] &= ~matches[i];
+        }
+        removeWords(slot, removed);
+        if(sizes[slot] == 0)
+            return fail(slot);
+        ArrayDeque<Integer> queue = new ArrayDeque<Integer>();
+        queue.add(slot);
+        return propagate(queue);
+    }
+
+    /**
+     * AC-3: revises the crossing slots of every slot in the queue until no domain changes
+     * @return - false if some slot has no words left
+     */
+    private boolean propagate(ArrayDeque<Integer> queue){
+        boolean[] isQueued = new boolean[slots.length];
+        for(int slot : queue){
+            isQueued[slot] = true;
+        }
+        while(!queue.isEmpty()){
+            int slot = queue.poll();
+            isQueued[slot] = false;
+            for(int position = 0; position < slots[slot].getLength(); position++){
+                int crossing = crossings[slot][position];
+                if(crossing == -1 || isFixed[crossing])
+                    continue;
+                if(revise(crossing, crossingPositions[slot][position], slot, position)){
+                    if(sizes[crossing] == 0)
+                        return fail(crossing);
+                    if(!isQueued[crossing]){
+                        isQueued[crossing] = true;
+                        queue.add(crossing);
+                    }
+                }
+            }
+        }
+        return isConsistent;
+    }
+
+    private boolean fail(int slot){
+        failedSlot = slot;
+        return isConsistent = false;
+    }
+
+    /**
+     * Removes every word of the slot whose letter at the position has no support at the crossing's position
+     * @return - true if the slot's domain changed
+     */
+    private boolean revise(int slot, int position, int crossing, int crossingPosition){
+        numRevisions++;
+        boolean isChanged = false;
+        for(int letterIndex = 0; letterIndex < NUM_LETTER_CODES; letterIndex++){
+            if(supports[slot][position * NUM_LETTER_CODES + letterIndex] > 0 && supports[crossing][crossingPosition * NUM_LETTER_CODES + letterIndex] == 0){
+                long[] removed = domains[slot].clone();
+                wordIndex.keepLetter(removed, slots[slot].getLength(), position, letterIndex);
+                removeWords(slot, removed);
+                isChanged = true;
+            }
+        }
+        return isChanged;
+    }
+
+    private void removeWord(int slot, int ordinal){
+        long[] removed = new long[domains[slot].length];
+        removed[ordinal >>> 6] = 1L << ordinal;
+        removeWords(slot, removed);
+    }
+
+    /**
+     * Removes the words (a subset of the domain) from the slot and updates its supports
+     */
+    private void removeWords(int slot, long[] removed){
+        save(slot);
+        int length = slots[slot].getLength();
+        for(int i = 0; i < removed.length; i++){
+            long bits = removed[i];
+            domains[slot][i] &= ~bits;
+            while(bits != 0){
+                int ordinal = (i << 6) + Long.numberOfTrailingZeros(bits);
+                for(int position = 0; position < length; position++){
+                    supports[slot][position * NUM_LETTER_CODES + getLetterIndex(slot, ordinal, position)]--;
+                }
+                sizes[slot]--;
+                bits &= bits - 1;
+            }
+        }
+    }
+
+    private boolean hasWord(int slot, int ordinal){
+        return (domains[slot][ordinal >>> 6] & (1L << ordinal)) != 0;
+    }
+
+    public int getLetterIndex(int slot, int ordinal, int position){
+        return DictionaryCompiler.getLetterIndex(wordArena.getLetter(slots[slot].getLength(), ordinal, position));
+    }
+
+    public boolean isConsistent(){
+        return isConsistent;
+    }
+
+    /**
+     * @return - the slot that was left without words by the last failed change, -1 if no change has failed
+     */
+    public int getFailedSlot(){
+        return failedSlot;
+    }
+
+    public int getNumSlots(){
+        return slots.length;
+    }
+
+    public Slot getSlot(int slot){
+        return slots[slot];
+    }
+
+    /**
+     * @return - the crossing slot at the position of the slot, -1 if there is none
+     */
+    public int getCrossing(int slot, int position){
+        return crossings[slot][position];
+    }
+
+    public int getCrossingPosition(int slot, int position){
+        return crossingPositions[slot][position];
+    }
+
+    public boolean isFixed(int slot){
+        return isFixed[slot];
+    }
+
+    public boolean isAssigned(int slot){
+        return isAssigned[slot];
+    }
+
+    public int getSize(int slot){
+        return sizes[slot];
+    }
+
+    /**
+     * @return - the number of the slot's words with the letter (see DictionaryCompiler.getLetterIndex) at the position
+     */
+    public int getSupport(int slot, int position, int letterIndex){
+        return supports[slot][position * NUM_LETTER_CODES + letterIndex];
+    }
+
+    /**
+     * @return - the slot's words in dictionary order
+     */
+    public WordMatches getWords(int slot){
+        return new WordMatches(wordArena, slots[slot].getLength(), WordIndex.getOrdinals(domains[slot]));
+    }
+
+    /**
+     * @return - the word with the ordinal (of the slot's length)
+     */
+    public String getWord(int slot, int ordinal){
+        return wordArena.getWord(slots[slot].getLength(), ordinal);
+    }
+
+    public long getNumRevisions(){
+        return numRevisions;
+    }
+
+}
@@ -0,0 +1,285 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ *  CLASS: SlotTable
+ *  PURPOSE: The clue numbers and every across and down entry of a crossword, and which entries each box belongs to. Built
+ *           once each time the crossword's blocks change, so finding an entry never has to scan the grid.
+ *  AUTHOR: Nathan Poppe
+ *
+ *  Entries are listed in the same order as the crossword's clues (row by row, left to right), including the 1 box entries
+ *  that get a number, so an entry's index is its clue index. The table never changes (a renumbered crossword gets a new
+ *  one), so copies of a crossword can share it.
+ *  When only a few blocks change (eg. a click while editing a template), update() builds the new table from this one: only
+ *  the runs in the rows and columns of the changed boxes are found again, and the numbers and entries after the first
+ *  changed box are shifted.
+ */
+public class SlotTable {
+
+    private Slot[] acrossSlots; // in clue order
+    private Slot[] downSlots;
+    private int[] acrossSlotOfBox; // [row * numCols + col]: the index of the across entry through the box, -1 for a filled box
+    private int[] downSlotOfBox;
+    private int[] boxOfNumber; // [number]: the box (row * numCols + col) with the number, -1 if there is none
+    private int[] numberOfBox; // [box]: the clue number of the box, 0 if it has none, -1 for a filled box
+    private int numCols;
+
+    private SlotTable(){
+
+    }
+
+    /**
+     * Numbers the grid (every open box that starts an across or down run gets the next number, row by row) and finds
+     * its entries
+     */
+    public SlotTable(Grid grid){
+        int numRows = grid.getNumRows();
+        numCols = grid.getNumCols();
+        numberOfBox = new int[numRows * numCols];
+        acrossSlotOfBox = new int[numRows * numCols];
+        downSlotOfBox = new int[numRows * numCols];
+        boxOfNumber = new int[numRows * numCols + 1];
+        Arrays.fill(boxOfNumber, -1);
+
+        int count = 0, numAcross = 0, numDown = 0;
+        for(int row = 0; row < numRows; row++){
+            for(int col = 0; col < numCols; col++){
+                int box = row * numCols + col;
+                if(grid.isBlock(row, col)){
+                    numberOfBox[box] = -1;
+                    continue;
+                }
+                boolean startsAcross = col == 0 || grid.isBlock(row, col - 1);
+                boolean startsDown = row == 0 || grid.isBlock(row - 1, col);
+                if(startsAcross || startsDown){
+                    count++;
+                    numberOfBox[box] = count;
+                    boxOfNumber[count] = box;
+                }
+                if(startsAcross)
+                    numAcross++;
+                if(startsDown)
+                    numDown++;
+            }
+        }
+
+        acrossSlots = new Slot[numAcross];
+        downSlots = new Slot[numDown];
+        numAcross = 0;
+        numDown = 0;
+        for(int row = 0; row < numRows; row++){
+            for(int col = 0; col < numCols; col++){
+                int box = row * numCols + col;
+                if(grid.isBlock(row, col)){
+                    acrossSlotOfBox[box] = -1;
+                    downSlotOfBox[box] = -1;
+                    continue;
+                }
+                boolean startsAcross = col == 0 || grid.isBlock(row, col - 1);
+                boolean startsDown = row == 0 || grid.isBlock(row - 1, col);
+                if(startsAcross){
+                    int length = 0;
+                    while(col + length < numCols && !grid.isBlock(row, col + length)){
+                        length++;
+                    }
+                    acrossSlots[numAcross] = new Slot(numberOfBox[box], true, row, col, length, numAcross);
+                    numAcross++;
+                }
+                if(startsDown){
+                    int length = 0;
+                    while(row + length < numRows && !grid.isBlock(row + length, col)){
+                        length++;
+                    }
+                    downSlots[numDown] = new Slot(numberOfBox[box], false, row, col, length, numDown);
+                    numDown++;
+                }
+                // the entries through a box started at the box itself or at the box to its left/above
+                acrossSlotOfBox[box] = startsAcross ? numAcross - 1 : acrossSlotOfBox[box - 1];
+                downSlotOfBox[box] = startsDown ? numDown - 1 : downSlotOfBox[box - numCols];
+            }
+        }
+    }
+
+    /**
+     * Renumbers the grid after the blocks of a few boxes changed
+     * @param grid - the grid with the changed blocks (the same grid this table was built from)
+     * @param boxes - row, col of each box that changed
+     * @return - the new table (this one is left unchanged)
+     */
+    public SlotTable update(Grid grid, int[][] boxes){
+        int numRows = grid.getNumRows();
+        boolean[] isRowChanged = new boolean[numRows];
+        boolean[] isColChanged = new boolean[numCols];
+        // a box's number can only change if it, or the box to its left/above, changed
+        int[] affected = new int[boxes.length * 3];
+        for(int i = 0; i < boxes.length; i++){
+            int row = boxes[i][0], col = boxes[i][1];
+            isRowChanged[row] = true;
+            isColChanged[col] = true;
+            affected[i * 3] = row * numCols + col;
+            affected[i * 3 + 1] = col + 1 < numCols ? row * numCols + col + 1 : -1;
+            affected[i * 3 + 2] = row + 1 < numRows ? (row + 1) * numCols + col : -1;
+        }
+        Arrays.sort(affected);
+
+        SlotTable table = new SlotTable();
+        table.numCols = numCols;
+        table.numberOfBox = numberOfBox.clone();
+        table.boxOfNumber = boxOfNumber.clone();
+        int first = numberOfBox.length;
+        for(int box : affected){
+            if(box != -1)
+                first = Math.min(first, box);
+        }
+        // the numbers before the first changed box stay, the ones after it are shifted
+        int count = 0;
+        for(int box = first - 1; box >= 0 && count == 0; box--){
+            count = Math.max(0, numberOfBox[box]);
+        }
+        Arrays.fill(table.boxOfNumber, count + 1, table.boxOfNumber.length, -1);
+        int next = 0; // the next affected box
+        for(int box = first; box < numberOfBox.length; box++){
+            while(next < affected.length && affected[next] < box){
+                next++;
+            }
+            if(next < affected.length && affected[next] == box){
+                int row = box / numCols, col = box % numCols;
+                if(grid.isBlock(row, col))
+                    table.numberOfBox[box] = -1;
+                else
+                    table.numberOfBox[box] = col == 0 || grid.isBlock(row, col - 1) || row == 0 || grid.isBlock(row - 1, col) ? 1 : 0;
+            }
+            // any other box keeps its block and whether it has a number, only the number shifts
+            if(table.numberOfBox[box] > 0){
+                count++;
+                table.numberOfBox[box] = count;
+                table.boxOfNumber[count] = box;
+            }
+        }
+
+        table.acrossSlotOfBox = acrossSlotOfBox.clone();
+        table.downSlotOfBox = downSlotOfBox.clone();
+        for(int[] box : boxes){
+            if(grid.isBlock(box[0], box[1])){
+                table.acrossSlotOfBox[box[0] * numCols + box[1]] = -1;
+                table.downSlotOfBox[box[0] * numCols + box[1]] = -1;
+            }
+        }
+        table.acrossSlots = updateSlots(grid, table, true, isRowChanged);
+        table.downSlots = updateSlots(grid, table, false, isColChanged);
+        return table;
+    }
+
+    /**
+     * Finds the across/down entries of the new table: the entries in the changed rows/columns are found again, the others
+     * are kept (with new numbers/indexes if they moved)
+     * @param isLineChanged - [row] for across entries, [col] for down entries: the line has a changed box
+     */
+    private Slot[] updateSlots(Grid grid, SlotTable table, boolean isAcross, boolean[] isLineChanged){
+        Slot[] slots = isAcross ? acrossSlots : downSlots;
+        ArrayList<Slot> found = new ArrayList<Slot>();
+        for(int line = 0; line < isLineChanged.length; line++){
+            int lineLength = isAcross ? grid.getNumCols() : grid.getNumRows();
+            for(int start = 0; isLineChanged[line] && start < lineLength; start++){
+                int row = isAcross ? line : start;
+                int col = isAcross ? start : line;
+                if(grid.isBlock(row, col) || start > 0 && !grid.isBlock(isAcross ? row : row - 1, isAcross ? col - 1 : col))
+                    continue;
+                int length = 0;
+                while(start + length < lineLength && !grid.isBlock(isAcross ? row : row + length, isAcross ? col + length : col)){
+                    length++;
+                }
+                Slot slot = getSlotAt(row, col, isAcross);
+                if(slot == null || slot.getRow() != row || slot.getCol() != col || slot.getLength() != length)
+                    slot = new Slot(0, isAcross, row, col, length); // a new entry, numbered below
+                found.add(slot);
+            }
+        }
+        found.sort((a, b) -> getStartBox(a) - getStartBox(b));
+
+        // merge the found entries with the kept ones (both in clue order)
+        ArrayList<Slot> updated = new ArrayList<Slot>(slots.length + found.size());
+        int next = 0;
+        for(Slot slot : slots){
+            if(isLineChanged[isAcross ? slot.getRow() : slot.getCol()])
+                continue;
+            while(next < found.size() && getStartBox(found.get(next)) < getStartBox(slot)){
+                updated.add(found.get(next));
+                next++;
+            }
+            updated.add(slot);
+        }
+        updated.addAll(found.subList(next, found.size()));
+
+        Slot[] result = new Slot[updated.size()];
+        int firstMoved = result.length;
+        for(int index = 0; index < result.length; index++){
+            Slot slot = updated.get(index);
+            int number = table.numberOfBox[slot.getRow() * numCols + slot.getCol()];
+            if(slot.getNumber() != number || slot.getClueIndex() != index)
+                slot = new Slot(number, isAcross, slot.getRow(), slot.getCol(), slot.getLength(), index);
+            result[index] = slot;
+            if(firstMoved == result.length && (index >= slots.length || slots[index] != slot))
+                firstMoved = index;
+        }
+        // the entries before the first moved one still have the same index
+        int[] slotOfBox = isAcross ? table.acrossSlotOfBox : table.downSlotOfBox;
+        for(int index = firstMoved; index < result.length; index++){
+            for(int position = 0; position < result[index].getLength(); position++){
+                slotOfBox[result[index].getRow(position) * numCols + result[index].getCol(position)] = index;
+            }
+        }
+        return result;
+    }
+
+    private int getStartBox(Slot slot){
+        return slot.getRow() * numCols + slot.getCol();
+    }
+
+    /**
+     * @return - the clue number of the box: -1 for a filled box, 0 for a box without a number
+     */
+    public int getNumber(int row, int col){
+        return numberOfBox[row * numCols + col];
+    }
+
+    /**
+     * @return - the across/down entry through the box, null for a filled box
+     */
+    public Slot getSlotAt(int row, int col, boolean isAcross){
+        int index = isAcross ? acrossSlotOfBox[row * numCols + col] : downSlotOfBox[row * numCols + col];
+        if(index == -1)
+            return null;
+        return isAcross ? acrossSlots[index] : downSlots[index];
+    }
+
+    /**
+     * @return - the across/down entry through the box with the number, null if there is no such number
+     */
+    public Slot getSlot(int number, boolean isAcross){
+        if(number <= 0 || number >= boxOfNumber.length || boxOfNumber[number] == -1)
+            return null;
+        return getSlotAt(boxOfNumber[number] / numCols, boxOfNumber[number] % numCols, isAcross);
+    }
+
+    /**
+     * @return - the row and column of the box with the number, null if there is no such number
+     */
+    public int[] getNumberBox(int number){
+        if(number <= 0 || number >= boxOfNumber.length || boxOfNumber[number] == -1)
+            return null;
+        return new int[]{boxOfNumber[number] / numCols, boxOfNumber[number] % numCols};
+    }
+
+    public int getNumSlots(boolean isAcross){
+        return isAcross ? acrossSlots.length : downSlots.length;
+    }
+
+    /**
+     * @param clueIndex - the index of the entry's clue
+     */
+    public Slot getSlotOfClue(boolean isAcross, int clueIndex){
+        return isAcross ? acrossSlots[clueIndex] : downSlots[clueIndex];
+    }
+
+}
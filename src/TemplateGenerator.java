@@ -0,0 +1,230 @@
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ *  CLASS: TemplateGenerator
+ *  PURPOSE: Makes random templates from the command line (no GUI) for a size and number of filled boxes, in parallel, and
+ *           adds them to the template file.
+ *  AUTHOR: Nathan Poppe
+ *
+ *  Usage: java -cp .:jars/* TemplateGenerator [width] [height] [filled boxes] [templates] [threads] [templates file] [--seed seed]
+ *      eg. java -cp .:jars/* TemplateGenerator 15 15 36 1000 4 resources/crossword-templates.txt --seed 42
+ *  Each worker fills in random boxes two at a time (a box and the box rotated 180 degrees from it), checking the template
+ *  with a TemplateValidator after every pair: a pair that makes a short entry, an unchecked box or a cut off region is
+ *  taken back right away (filling in more boxes can never fix those). A template that reaches the number of filled boxes
+ *  is kept unless a template with the same blocks (flipped or turned) was already made or is already in the file.
+ *  Every try has its own Random, seeded from the seed and the try's number, and the templates are kept in the order of
+ *  their tries, so the same seed makes the same templates with any number of threads. Without --seed the seed is
+ *  random, it is printed so the run can be repeated.
+ *  The filled boxes go in pairs, so an odd number of them needs a center box (an odd width and an odd height).
+ */
+public class TemplateGenerator {
+
+    private final static String DEFAULT_TEMPLATES_FILE_PATH = "resources/crossword-templates.txt";
+    private final static int MAX_TRIES_PER_BOX = 4; // random boxes tried per box of the grid before a template is given up
+    private final static int MAX_TRIES_PER_TEMPLATE = 1000; // templates tried per template asked for before stopping
+
+    private int width;
+    private int height;
+    private int numBlocks;
+    private int numTemplates;
+    private int numThreads;
+    private String templatesFilePath;
+    private long seed = System.nanoTime();
+
+    private ConcurrentSkipListMap<Long, Grid> templates = new ConcurrentSkipListMap<Long, Grid>(); // try number --> template
+    private ConcurrentHashMap<String, Boolean> templateKeys = new ConcurrentHashMap<String, Boolean>(); // canonical blocks of the different templates
+    private ConcurrentHashMap<String, Boolean> savedTemplates = new ConcurrentHashMap<String, Boolean>(); // already in the file
+    private AtomicLong numTries = new AtomicLong();
+    private AtomicLong numDuplicates = new AtomicLong();
+
+    /**
+     * @throws IllegalArgumentException - if no symmetric template can have numBlocks filled boxes
+     */
+    public TemplateGenerator(int width, int height, int numBlocks, int numTemplates, int numThreads, String templatesFilePath){
+        if(numBlocks < 0 || numBlocks > width * height)
+            throw new IllegalArgumentException("A " + width + "x" + height + " template can not have " + numBlocks + " filled boxes.");
+        if(numBlocks % 2 != 0 && (width % 2 == 0 || height % 2 == 0))
+            throw new IllegalArgumentException("A " + width + "x" + height + " template has no center box, so its filled boxes (in symmetric pairs) can not be odd.");
+        this.width = width;
+        this.height = height;
+        this.numBlocks = numBlocks;
+        this.numTemplates = numTemplates;
+        this.numThreads = numThreads;
+        this.templatesFilePath = templatesFilePath;
+    }
+
+    public static void main(String[] args){
+        System.setProperty("java.awt.headless", "true"); // never needs a display
+        ArrayList<String> params = new ArrayList<String>();
+        Long seed = null;
+        for(int i = 0; i < args.length; i++){
+            if(args[i].equals("--seed") && i + 1 < args.length)
+                seed = Long.parseLong(args[++i]);
+            else
+                params.add(args[i]);
+        }
+        args = params.toArray(new String[0]);
+        int width = args.length > 0 ? Integer.parseInt(args[0]) : Crossword.getDefaultSize();
+        int height = args.length > 1 ? Integer.parseInt(args[1]) : width;
+        int numBlocks = args.length > 2 ? Integer.parseInt(args[2]) : width * height / 6;
+        int numTemplates = args.length > 3 ? Integer.parseInt(args[3]) : 100;
+        int numThreads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+        String templatesFilePath = args.length > 5 ? args[5] : DEFAULT_TEMPLATES_FILE_PATH;
+        TemplateGenerator generator = new TemplateGenerator(width, height, numBlocks, numTemplates, numThreads, templatesFilePath);
+        if(seed != null)
+            generator.setSeed(seed);
+        generator.run();
+    }
+
+    /**
+     * @param seed - the same seed makes the same templates (random by default)
+     */
+    public void setSeed(long seed){
+        this.seed = seed;
+    }
+
+    /**
+     * Makes the templates and adds them to the template file, printing the timings
+     */
+    public void run(){
+        ArrayList<Crossword> library = new CrosswordReader().readInCrosswords(templatesFilePath, true);
+        for(Crossword template : library){
+            if(template.getWidth() == width && template.getHeight() == height)
+                savedTemplates.put(getCanonicalKey(template.getGrid()), true);
+        }
+
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        ArrayList<Future<?>> workers = new ArrayList<Future<?>>();
+        for(int thread = 0; thread < numThreads; thread++){
+            workers.add(executor.submit(() -> generate()));
+        }
+        for(Future<?> worker : workers){
+            try{
+                worker.get();
+            }
+            catch(InterruptedException e){
+                Thread.currentThread().interrupt();
+                break;
+            }
+            catch(ExecutionException e){
+                System.out.println("Could not generate templates!");
+            }
+        }
+        executor.shutdown();
+
+        // the first templates in try order (every try before them is done, so they do not depend on the threads)
+        ArrayList<Crossword> newTemplates = new ArrayList<Crossword>();
+        HashSet<String> keys = new HashSet<String>();
+        for(Grid grid : templates.values()){
+            if(newTemplates.size() == numTemplates)
+                break;
+            if(!keys.add(getCanonicalKey(grid))){
+                numDuplicates.incrementAndGet();
+                continue;
+            }
+            Crossword template = new Crossword("", width, height, numBlocks, grid);
+            template.setTemplateName();
+            newTemplates.add(template);
+        }
+        new CrosswordWriter().addTemplates(library, newTemplates, templatesFilePath);
+
+        long millis = (System.nanoTime() - start) / 1000000;
+        System.out.println("Made " + newTemplates.size() + " of " + numTemplates + " " + width + "x" + height + " templates with " + numBlocks + " filled boxes in " + millis + " ms with " + numThreads + " threads");
+        System.out.println(String.format("%,d tries, %,d duplicates, %d templates in %s, seed %d", numTries.get(), numDuplicates.get(), library.size(), templatesFilePath, seed));
+    }
+
+    /**
+     * Makes templates until there are enough (or too many tries failed)
+     */
+    private void generate(){
+        long maxTries = (long) numTemplates * MAX_TRIES_PER_TEMPLATE;
+        long tryNum;
+        while(templateKeys.size() < numTemplates && (tryNum = numTries.incrementAndGet()) <= maxTries){
+            Grid grid = generateTemplate(new Random(getTrySeed(tryNum)));
+            if(grid == null)
+                continue;
+            String key = getCanonicalKey(grid);
+            if(savedTemplates.containsKey(key)){
+                numDuplicates.incrementAndGet();
+                continue;
+            }
+            templateKeys.put(key, true);
+            templates.put(tryNum, grid); // a template made twice is dropped later, from the later try
+        }
+    }
+
+    /**
+     * @return - the seed of a try: the seed and the try's number mixed (SplitMix64), so nearby tries get unrelated seeds
+     */
+    private long getTrySeed(long tryNum){
+        long mixed = seed + tryNum * 0x9E3779B97F4A7C15L;
+        mixed = (mixed ^ (mixed >>> 30)) * 0xBF58476D1CE4E5B9L;
+        mixed = (mixed ^ (mixed >>> 27)) * 0x94D049BB133111EBL;
+        return mixed ^ (mixed >>> 31);
+    }
+
+    /**
+     * @return - a valid symmetric template with numBlocks filled boxes, null if the random boxes led nowhere
+     */
+    private Grid generateTemplate(Random random){
+        Grid grid = new Grid(height, width);
+        TemplateValidator validator = new TemplateValidator(grid);
+        int filled = 0;
+        for(int tries = 0; filled < numBlocks && tries < MAX_TRIES_PER_BOX * width * height; tries++){
+            int row = random.nextInt(height), col = random.nextInt(width);
+            int mirrorRow = height - 1 - row, mirrorCol = width - 1 - col;
+            boolean isCenter = row == mirrorRow && col == mirrorCol;
+            if(grid.isBlock(row, col) || filled + (isCenter ? 1 : 2) > numBlocks)
+                continue;
+            validator.setBlock(row, col, true);
+            validator.setBlock(mirrorRow, mirrorCol, true);
+            if(validator.isValid()){
+                filled += isCenter ? 1 : 2;
+            }
+            else{
+                validator.setBlock(row, col, false);
+                validator.setBlock(mirrorRow, mirrorCol, false);
+            }
+        }
+        return filled == numBlocks ? grid : null;
+    }
+
+    /**
+     * The same key for every flip/turn of the blocks, so templates that are only flipped or turned count as duplicates
+     * @return - the smallest of the block strings ('!' filled, '0' open, row by row) of each flip/turn
+     */
+    private String getCanonicalKey(Grid grid){
+        int numRows = grid.getNumRows(), numCols = grid.getNumCols();
+        int numTransforms = numRows == numCols ? 8 : 4; // only a square can be turned a quarter
+        String key = null;
+        for(int transform = 0; transform < numTransforms; transform++){
+            StringBuilder blocks = new StringBuilder(numRows * numCols);
+            int outRows = transform < 4 ? numRows : numCols, outCols = transform < 4 ? numCols : numRows;
+            for(int row = 0; row < outRows; row++){
+                for(int col = 0; col < outCols; col++){
+                    int r = transform < 4 ? row : col; // transforms 4-7 also swap rows and columns
+                    int c = transform < 4 ? col : row;
+                    if((transform & 1) != 0)
+                        r = numRows - 1 - r;
+                    if((transform & 2) != 0)
+                        c = numCols - 1 - c;
+                    blocks.append(grid.isBlock(r, c) ? '!' : '0');
+                }
+            }
+            if(key == null || blocks.toString().compareTo(key) < 0)
+                key = blocks.toString();
+        }
+        return key;
+    }
+
+}
@@ -0,0 +1,152 @@
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ *  CLASS: TemplateRater
+ *  PURPOSE: Rates how hard a template is to fill with the dictionary, from 0 (fills right away) to 1 (could not be filled).
+ *  AUTHOR: Nathan Poppe
+ *
+ *  Usage (rates the templates of a file that are not rated yet, no GUI):
+ *      java -cp .:jars/* TemplateRater [milliseconds per template] [threads] [templates file]
+ *      eg. java -cp .:jars/* TemplateRater 2000 4 resources/crossword-templates.txt
+ *  A rating has two parts:
+ *      - an estimate from the blocks alone: the expected number of fills, ie. the product of the entries' word counts
+ *        times, for every crossing, the chance that two random words of the crossing entries agree on the shared letter
+ *        (from the letter counts at that position). Long entries have few words and many crossings make agreeing less
+ *        likely, so both lower it. A template expected to have less than 1 fill is rated 1 right away.
+ *      - a few fills (CrosswordFiller, each with its own seed) with a node limit and a share of the time limit. The
+ *        effort of a fill is the words it placed per entry, a fill that gives up counts as twice its node limit. A fill
+ *        that runs out of time is left out (a slow computer should not make a template look harder).
+ *  The rating is the average of the fills' efforts, with the estimate counted as PRIOR_WEIGHT more fills.
+ *  A rating is only worked out once, it is saved with the template (see CrosswordReader).
+ */
+public class TemplateRater {
+
+    private final static String DEFAULT_TEMPLATES_FILE_PATH = "resources/crossword-templates.txt";
+    private final static int NUM_SAMPLES = 4; // fills tried per template
+    private final static int NODES_PER_SLOT = 200; // node limit of a fill, per entry
+    private final static float PRIOR_WEIGHT = 2; // the estimate counts as this many fills
+    // log10 of the expected fills per entry: at EASY_FILLS_PER_SLOT or more the estimate is 0, at HARD_FILLS_PER_SLOT 1
+    private final static double EASY_FILLS_PER_SLOT = 0.7;
+    private final static double HARD_FILLS_PER_SLOT = -0.1;
+
+    private WordFinder wordFinder;
+
+    public TemplateRater(WordFinder wordFinder){
+        this.wordFinder = wordFinder;
+    }
+
+    public static void main(String[] args){
+        System.setProperty("java.awt.headless", "true"); // never needs a display
+        long timeLimit = args.length > 0 ? Long.parseLong(args[0]) : 2000;
+        int numThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        String templatesFilePath = args.length > 2 ? args[2] : DEFAULT_TEMPLATES_FILE_PATH;
+
+        long start = System.nanoTime();
+        TemplateRater rater = new TemplateRater(new WordFinder());
+        ArrayList<Crossword> templates = new CrosswordReader().readInCrosswords(templatesFilePath, true);
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        ArrayList<Crossword> unrated = new ArrayList<Crossword>();
+        ArrayList<Future<Float>> ratings = new ArrayList<Future<Float>>();
+        for(Crossword template : templates){
+            if(!template.isRated()){
+                unrated.add(template);
+                ratings.add(executor.submit(() -> rater.rate(template, timeLimit)));
+            }
+        }
+        for(int i = 0; i < unrated.size(); i++){
+            try{
+                unrated.get(i).setFillRating(ratings.get(i).get());
+                unrated.get(i).setTemplateName();
+                System.out.println(String.format("%s %.2f", unrated.get(i).getName(), unrated.get(i).getFillRating()));
+            }
+            catch(InterruptedException e){
+                Thread.currentThread().interrupt();
+                break;
+            }
+            catch(ExecutionException e){
+                System.out.println("Could not rate template " + i + "!");
+            }
+        }
+        executor.shutdown();
+        new CrosswordWriter().saveTemplates(templates, null, templatesFilePath);
+        long millis = (System.nanoTime() - start) / 1000000;
+        System.out.println("Rated " + unrated.size() + " of " + templates.size() + " templates in " + millis + " ms with " + numThreads + " threads");
+    }
+
+    /**
+     * Rates a template (only its blocks are used, it is not changed). Can be called from any thread.
+     * @param timeLimit - milliseconds for the sample fills together
+     * @return - the rating, 0 (easy) to 1 (could not be filled)
+     */
+    public float rate(Crossword template, long timeLimit){
+        Crossword blank = getBlankCopy(template);
+        SlotDomains domains = wordFinder.createSlotDomains(true, blank.getSlotTable(), blank.getGrid());
+        int numSlots = domains.getNumSlots();
+        if(numSlots == 0)
+            return 0;
+        if(!domains.isConsistent())
+            return 1;
+        double fillsPerSlot = getLogExpectedFills(domains) / numSlots;
+        if(fillsPerSlot < 0)
+            return 1; // less than 1 fill expected
+        double estimate = Math.min(1, Math.max(0, (EASY_FILLS_PER_SLOT - fillsPerSlot) / (EASY_FILLS_PER_SLOT - HARD_FILLS_PER_SLOT)));
+
+        long nodeLimit = (long) numSlots * NODES_PER_SLOT;
+        double maxEffort = Math.log10(2.0 * nodeLimit / numSlots);
+        double effort = 0;
+        int numFills = 0;
+        for(int sample = 0; sample < NUM_SAMPLES; sample++){
+            CrosswordFiller filler = new CrosswordFiller(new Crossword(blank), wordFinder, true, sample);
+            filler.setNodeLimit(nodeLimit);
+            filler.setTimeLimit(Math.max(1, timeLimit / NUM_SAMPLES));
+            boolean isFilled = filler.fill();
+            if(!isFilled && filler.isOutOfTime())
+                continue;
+            double nodes = isFilled ? Math.max(numSlots, filler.getNumNodes()) : 2.0 * nodeLimit;
+            effort += Math.log10(nodes / numSlots) / maxEffort;
+            numFills++;
+        }
+        return (float)((PRIOR_WEIGHT * estimate + effort) / (PRIOR_WEIGHT + numFills));
+    }
+
+    /**
+     * @return - a copy of the template with its blocks and no letters
+     */
+    private Crossword getBlankCopy(Crossword template){
+        Grid grid = new Grid(template.getHeight(), template.getWidth());
+        for(int row = 0; row < template.getHeight(); row++){
+            for(int col = 0; col < template.getWidth(); col++){
+                grid.setBlock(row, col, template.isBlock(row, col));
+            }
+        }
+        return new Crossword(template.getName(), template.getWidth(), template.getHeight(), template.getNumBoxesFilled(), grid);
+    }
+
+    /**
+     * @return - log10 of the expected number of fills: the words of every entry, times the chance that each crossing agrees
+     */
+    private double getLogExpectedFills(SlotDomains domains){
+        double logFills = 0;
+        for(int slot = 0; slot < domains.getNumSlots(); slot++){
+            logFills += Math.log10(domains.getSize(slot));
+            for(int position = 0; position < domains.getSlot(slot).getLength(); position++){
+                int crossing = domains.getCrossing(slot, position);
+                if(crossing < slot)
+                    continue; // no crossing, or already counted from the other entry
+                int crossingPosition = domains.getCrossingPosition(slot, position);
+                double agree = 0;
+                for(int letterIndex = 0; letterIndex <= DictionaryCompiler.NUM_LETTERS; letterIndex++){
+                    agree += (double) domains.getSupport(slot, position, letterIndex) / domains.getSize(slot)
+                            * domains.getSupport(crossing, crossingPosition, letterIndex) / domains.getSize(crossing);
+                }
+                logFills += Math.log10(agree);
+            }
+        }
+        return logFills;
+    }
+
+}
@@ -0,0 +1,315 @@
+
+/**
+ *  CLASS: TemplateValidator
+ *  PURPOSE: Checks a template while it is being edited: entries shorter than MIN_ENTRY_LENGTH, unchecked boxes (boxes in
+ *           only one entry), open boxes cut off from the rest of the grid and boxes that break 180 degree symmetry.
+ *  AUTHOR: Nathan Poppe
+ *
+ *  Every count is kept up to date as boxes are toggled, so checking a click costs about as much as the click itself:
+ *      - the length of the across/down run through each box is stored, a toggle only recomputes the runs in the box's row
+ *        and column that touch it
+ *      - the open boxes are joined in a union-find. Opening a box unions it with its open neighbours. Filling a box in can
+ *        only split the grid if its open neighbours are not joined around it (through the diagonal boxes), only then is the
+ *        union-find rebuilt. Filled in boxes keep their node (so the sets stay joined) and an opened box gets a new node.
+ */
+public class TemplateValidator {
+
+    public final static int MIN_ENTRY_LENGTH = 3;
+
+    private Grid grid;
+    private int numRows;
+    private int numCols;
+
+    private int[] acrossRun; // [box]: the length of the across run through the box, 0 for a filled box
+    private int[] downRun;
+    private int numShortEntries; // runs of 2 to MIN_ENTRY_LENGTH - 1 boxes
+    private int numUnchecked; // open boxes with an across or down run of 1
+    private int numAsymmetric; // boxes whose mirror box is not the same
+
+    private int[] nodeOfBox; // -1 for a filled box
+    private int[] parent; // union-find over the nodes
+    private int[] size; // [root]: the number of open boxes in the set
+    private int numNodes;
+    private int numRegions; // the number of sets of open boxes
+    private int mainRoot = -1; // the root of the largest region, -1 if it needs finding again
+
+    public TemplateValidator(Grid grid){
+        this.grid = grid;
+        this.numRows = grid.getNumRows();
+        this.numCols = grid.getNumCols();
+        int numBoxes = numRows * numCols;
+        acrossRun = new int[numBoxes];
+        downRun = new int[numBoxes];
+        for(int row = 0; row < numRows; row++){
+            countRuns(row, 0, numCols - 1, true);
+        }
+        for(int col = 0; col < numCols; col++){
+            countRuns(col, 0, numRows - 1, false);
+        }
+        for(int row = 0; row < numRows; row++){
+            for(int col = 0; col < numCols; col++){
+                numUnchecked += isUnchecked(row, col) ? 1 : 0;
+                numAsymmetric += isAsymmetric(row, col) ? 1 : 0;
+            }
+        }
+        nodeOfBox = new int[numBoxes];
+        parent = new int[numBoxes * 2];
+        size = new int[numBoxes * 2];
+        rebuildRegions();
+    }
+
+    /**
+     * Fills in (or empties) a box of the grid and updates the checks. Renumber the crossword afterwards.
+     * @return - the top row whose boxes may now be shown differently (the box's column run can start above it)
+     */
+    public int setBlock(int row, int col, boolean isBlock){
+        if(grid.isBlock(row, col) == isBlock)
+            return row;
+        // the runs that change are the ones through the box, or the ones ending next to it
+        int left = col, right = col, top = row, bottom = row;
+        while(left > 0 && !grid.isBlock(row, left - 1))
+            left--;
+        while(right < numCols - 1 && !grid.isBlock(row, right + 1))
+            right++;
+        while(top > 0 && !grid.isBlock(top - 1, col))
+            top--;
+        while(bottom < numRows - 1 && !grid.isBlock(bottom + 1, col))
+            bottom++;
+
+        int mirrorRow = numRows - 1 - row, mirrorCol = numCols - 1 - col;
+        boolean isCenter = mirrorRow == row && mirrorCol == col;
+        numShortEntries -= countShortRuns(row, left, right, true) + countShortRuns(col, top, bottom, false);
+        numUnchecked -= countUnchecked(row, col, left, right, top, bottom);
+        numAsymmetric -= isAsymmetric(row, col) ? (isCenter ? 1 : 2) : 0;
+        grid.setBlock(row, col, isBlock);
+        countRuns(row, left, right, true);
+        countRuns(col, top, bottom, false);
+        numUnchecked += countUnchecked(row, col, left, right, top, bottom);
+        numAsymmetric += isAsymmetric(row, col) ? (isCenter ? 1 : 2) : 0;
+
+        if(isBlock)
+            closeBox(row, col);
+        else
+            openBox(row, col);
+        mainRoot = -1;
+        return top;
+    }
+
+    /**
+     * @return - the number of unchecked boxes in the row span and column span through a box
+     */
+    private int countUnchecked(int row, int col, int left, int right, int top, int bottom){
+        int count = 0;
+        for(int c = left; c <= right; c++){
+            count += isUnchecked(row, c) ? 1 : 0;
+        }
+        for(int r = top; r <= bottom; r++){
+            count += r != row && isUnchecked(r, col) ? 1 : 0;
+        }
+        return count;
+    }
+
+    /**
+     * Finds the runs between first and last of a line, storing their lengths and counting the short ones
+     * @param line - the row for across runs, the column for down runs
+     */
+    private void countRuns(int line, int first, int last, boolean isAcross){
+        int[] run = isAcross ? acrossRun : downRun;
+        int start = first;
+        while(start <= last){
+            int length = 0;
+            while(start + length <= last && !isBlock(line, start + length, isAcross))
+                length++;
+            for(int i = start; i < start + length; i++){
+                run[getBox(line, i, isAcross)] = length;
+            }
+            if(length >= 2 && length < MIN_ENTRY_LENGTH)
+                numShortEntries++;
+            if(length == 0)
+                run[getBox(line, start, isAcross)] = 0;
+            start += Math.max(1, length);
+        }
+    }
+
+    /**
+     * @return - the number of short runs (by their stored lengths) between first and last of a line
+     */
+    private int countShortRuns(int line, int first, int last, boolean isAcross){
+        int[] run = isAcross ? acrossRun : downRun;
+        int count = 0;
+        int i = first;
+        while(i <= last){
+            int length = run[getBox(line, i, isAcross)];
+            if(length >= 2 && length < MIN_ENTRY_LENGTH)
+                count++;
+            i += Math.max(1, length);
+        }
+        return count;
+    }
+
+    private boolean isBlock(int line, int i, boolean isAcross){
+        return isAcross ? grid.isBlock(line, i) : grid.isBlock(i, line);
+    }
+
+    private int getBox(int line, int i, boolean isAcross){
+        return isAcross ? line * numCols + i : i * numCols + line;
+    }
+
+    /**
+     * Joins a newly opened box to its open neighbours
+     */
+    private void openBox(int row, int col){
+        if(numNodes == parent.length){
+            rebuildRegions(); // out of fresh nodes, start over (this joins the box too)
+            return;
+        }
+        int node = numNodes++;
+        parent[node] = node;
+        size[node] = 1;
+        nodeOfBox[row * numCols + col] = node;
+        numRegions++;
+        int[][] neighbours = {{row - 1, col}, {row + 1, col}, {row, col - 1}, {row, col + 1}};
+        for(int[] neighbour : neighbours){
+            if(isOpen(neighbour[0], neighbour[1]))
+                union(node, nodeOfBox[neighbour[0] * numCols + neighbour[1]]);
+        }
+    }
+
+    /**
+     * Takes a newly filled in box out of its region, rebuilding the regions if it may have split one
+     */
+    private void closeBox(int row, int col){
+        int node = nodeOfBox[row * numCols + col];
+        nodeOfBox[row * numCols + col] = -1;
+        boolean north = isOpen(row - 1, col), south = isOpen(row + 1, col), west = isOpen(row, col - 1), east = isOpen(row, col + 1);
+        int numOpen = (north ? 1 : 0) + (south ? 1 : 0) + (west ? 1 : 0) + (east ? 1 : 0);
+        // neighbours next to each other stay joined through the diagonal box between them
+        int numJoined = (north && east && isOpen(row - 1, col + 1) ? 1 : 0) + (east && south && isOpen(row + 1, col + 1) ? 1 : 0)
+                + (south && west && isOpen(row + 1, col - 1) ? 1 : 0) + (west && north && isOpen(row - 1, col - 1) ? 1 : 0);
+        if(numOpen == 0){
+            size[find(node)]--;
+            numRegions--;
+        }
+        else if(numOpen - numJoined <= 1){
+            size[find(node)]--; // the node stays, joining its set
+        }
+        else{
+            rebuildRegions();
+        }
+    }
+
+    private void rebuildRegions(){
+        numNodes = 0;
+        numRegions = 0;
+        for(int row = 0; row < numRows; row++){
+            for(int col = 0; col < numCols; col++){
+                int box = row * numCols + col;
+                if(grid.isBlock(row, col)){
+                    nodeOfBox[box] = -1;
+                    continue;
+                }
+                int node = numNodes++;
+                parent[node] = node;
+                size[node] = 1;
+                nodeOfBox[box] = node;
+                numRegions++;
+                if(isOpen(row - 1, col))
+                    union(node, nodeOfBox[box - numCols]);
+                if(isOpen(row, col - 1))
+                    union(node, nodeOfBox[box - 1]);
+            }
+        }
+    }
+
+    private int find(int node){
+        while(parent[node] != node){
+            parent[node] = parent[parent[node]];
+            node = parent[node];
+        }
+        return node;
+    }
+
+    private void union(int node1, int node2){
+        int root1 = find(node1), root2 = find(node2);
+        if(root1 == root2)
+            return;
+        if(size[root1] < size[root2]){
+            int swap = root1;
+            root1 = root2;
+            root2 = swap;
+        }
+        parent[root2] = root1;
+        size[root1] += size[root2];
+        numRegions--;
+    }
+
+    private boolean isOpen(int row, int col){
+        return grid.isInBounds(row, col) && !grid.isBlock(row, col);
+    }
+
+    private boolean isUnchecked(int row, int col){
+        int box = row * numCols + col;
+        return !grid.isBlock(row, col) && (acrossRun[box] == 1 || downRun[box] == 1);
+    }
+
+    private boolean isAsymmetric(int row, int col){
+        return grid.isBlock(row, col) != grid.isBlock(numRows - 1 - row, numCols - 1 - col);
+    }
+
+    /**
+     * @return - true if the box is in an entry shorter than MIN_ENTRY_LENGTH
+     */
+    public boolean isInShortEntry(int row, int col){
+        int box = row * numCols + col;
+        return acrossRun[box] >= 2 && acrossRun[box] < MIN_ENTRY_LENGTH || downRun[box] >= 2 && downRun[box] < MIN_ENTRY_LENGTH;
+    }
+
+    /**
+     * @return - true if the open box is only in one entry (or none)
+     */
+    public boolean isUncheckedBox(int row, int col){
+        return isUnchecked(row, col);
+    }
+
+    /**
+     * @return - true if the open box is not in the largest region of open boxes
+     */
+    public boolean isCutOff(int row, int col){
+        if(numRegions <= 1 || grid.isBlock(row, col))
+            return false;
+        if(mainRoot == -1){
+            for(int box = 0; box < nodeOfBox.length; box++){
+                if(nodeOfBox[box] != -1 && (mainRoot == -1 || size[find(nodeOfBox[box])] > size[mainRoot]))
+                    mainRoot = find(nodeOfBox[box]);
+            }
+        }
+        return find(nodeOfBox[row * numCols + col]) != mainRoot;
+    }
+
+    public int getNumShortEntries(){
+        return numShortEntries;
+    }
+
+    public int getNumUnchecked(){
+        return numUnchecked;
+    }
+
+    /**
+     * @return - the number of separate regions of open boxes (a valid template has 1)
+     */
+    public int getNumRegions(){
+        return numRegions;
+    }
+
+    /**
+     * @return - the number of boxes whose mirror box (rotated 180 degrees) is not the same
+     */
+    public int getNumAsymmetric(){
+        return numAsymmetric;
+    }
+
+    public boolean isValid(){
+        return numShortEntries == 0 && numUnchecked == 0 && numRegions <= 1;
+    }
+
+}
@@ -0,0 +1,167 @@
+import java.util.Random;
+
+/**
+ *  CLASS: TemplateValidatorTest
+ *  PURPOSE: Checks the live counts of the TemplateValidator against counting the template again from scratch (no GUI,
+ *           exits with 1 if a check fails).
+ *  AUTHOR: Nathan Poppe
+ *
+ *  Usage: java TemplateValidatorTest
+ *  Random boxes of grids of a few sizes are filled in and emptied one at a time. After every toggle the short entries,
+ *  unchecked boxes, regions and asymmetric boxes are counted again box by box (and with a new TemplateValidator), and
+ *  every box's marks are compared with the live ones.
+ */
+public class TemplateValidatorTest {
+
+    private final static int[][] SIZES = {{3, 3}, {5, 7}, {15, 15}, {21, 13}};
+    private final static int TOGGLES_PER_GRID = 3000;
+
+    private static int numChecks;
+    private static int numFailed;
+
+    public static void main(String[] args){
+        Random random = new Random(1);
+        for(int[] size : SIZES){
+            int numRows = size[0], numCols = size[1];
+            Grid grid = new Grid(numRows, numCols);
+            TemplateValidator validator = new TemplateValidator(grid);
+            boolean isSame = true;
+            for(int toggle = 0; toggle < TOGGLES_PER_GRID && isSame; toggle++){
+                int row = random.nextInt(numRows), col = random.nextInt(numCols);
+                // keep about a quarter of the boxes filled in, so the grid has short entries and cut off regions, but not only
+                boolean isBlock = random.nextInt(4) == 0;
+                validator.setBlock(row, col, isBlock);
+                isSame = isSameAsScratch(grid, validator, numRows + "x" + numCols + " toggle " + toggle);
+            }
+            check(isSame, numRows + "x" + numCols + ": " + TOGGLES_PER_GRID + " toggles match counting from scratch");
+        }
+        System.out.println((numChecks - numFailed) + " of " + numChecks + " checks passed");
+        System.exit(numFailed == 0 ? 0 : 1);
+    }
+
+    /**
+     * @return - true if every count and mark of the validator matches counting the grid from scratch (prints the first
+     *           one that does not)
+     */
+    private static boolean isSameAsScratch(Grid grid, TemplateValidator validator, String name){
+        int numRows = grid.getNumRows(), numCols = grid.getNumCols();
+        int[] acrossRun = new int[numRows * numCols];
+        int[] downRun = new int[numRows * numCols];
+        int numShortEntries = 0;
+        for(int row = 0; row < numRows; row++){
+            for(int col = 0; col < numCols; col++){
+                if(grid.isBlock(row, col) || col > 0 && !grid.isBlock(row, col - 1))
+                    continue;
+                int length = 0;
+                while(col + length < numCols && !grid.isBlock(row, col + length))
+                    length++;
+                for(int i = 0; i < length; i++)
+                    acrossRun[row * numCols + col + i] = length;
+                numShortEntries += length >= 2 && length < TemplateValidator.MIN_ENTRY_LENGTH ? 1 : 0;
+            }
+        }
+        for(int col = 0; col < numCols; col++){
+            for(int row = 0; row < numRows; row++){
+                if(grid.isBlock(row, col) || row > 0 && !grid.isBlock(row - 1, col))
+                    continue;
+                int length = 0;
+                while(row + length < numRows && !grid.isBlock(row + length, col))
+                    length++;
+                for(int i = 0; i < length; i++)
+                    downRun[(row + i) * numCols + col] = length;
+                numShortEntries += length >= 2 && length < TemplateValidator.MIN_ENTRY_LENGTH ? 1 : 0;
+            }
+        }
+
+        int numUnchecked = 0, numAsymmetric = 0;
+        for(int row = 0; row < numRows; row++){
+            for(int col = 0; col < numCols; col++){
+                int box = row * numCols + col;
+                numUnchecked += !grid.isBlock(row, col) && (acrossRun[box] == 1 || downRun[box] == 1) ? 1 : 0;
+                numAsymmetric += grid.isBlock(row, col) != grid.isBlock(numRows - 1 - row, numCols - 1 - col) ? 1 : 0;
+            }
+        }
+
+        // the regions of open boxes, with a flood fill
+        int[] regionOfBox = new int[numRows * numCols];
+        int numRegions = 0, largest = -1, largestSize = 0, secondSize = 0;
+        int[] stack = new int[numRows * numCols];
+        for(int start = 0; start < regionOfBox.length; start++){
+            if(grid.isBlock(start / numCols, start % numCols) || regionOfBox[start] != 0)
+                continue;
+            numRegions++;
+            int regionSize = 0, top = 0;
+            stack[top++] = start;
+            regionOfBox[start] = numRegions;
+            while(top > 0){
+                int box = stack[--top];
+                regionSize++;
+                int row = box / numCols, col = box % numCols;
+                int[][] neighbours = {{row - 1, col}, {row + 1, col}, {row, col - 1}, {row, col + 1}};
+                for(int[] neighbour : neighbours){
+                    int r = neighbour[0], c = neighbour[1];
+                    if(grid.isInBounds(r, c) && !grid.isBlock(r, c) && regionOfBox[r * numCols + c] == 0){
+                        regionOfBox[r * numCols + c] = numRegions;
+                        stack[top++] = r * numCols + c;
+                    }
+                }
+            }
+            if(regionSize > largestSize){
+                secondSize = largestSize;
+                largestSize = regionSize;
+                largest = numRegions;
+            }
+            else{
+                secondSize = Math.max(secondSize, regionSize);
+            }
+        }
+
+        TemplateValidator fresh = new TemplateValidator(new Grid(grid));
+        if(!isSameCount(validator.getNumShortEntries(), fresh.getNumShortEntries(), numShortEntries, name + ": short entries")
+                || !isSameCount(validator.getNumUnchecked(), fresh.getNumUnchecked(), numUnchecked, name + ": unchecked boxes")
+                || !isSameCount(validator.getNumRegions(), fresh.getNumRegions(), numRegions, name + ": regions")
+                || !isSameCount(validator.getNumAsymmetric(), fresh.getNumAsymmetric(), numAsymmetric, name + ": asymmetric boxes"))
+            return false;
+        boolean isValid = numShortEntries == 0 && numUnchecked == 0 && numRegions <= 1;
+        if(validator.isValid() != isValid){
+            check(false, name + ": isValid is " + validator.isValid());
+            return false;
+        }
+
+        for(int row = 0; row < numRows; row++){
+            for(int col = 0; col < numCols; col++){
+                int box = row * numCols + col;
+                boolean isShort = acrossRun[box] >= 2 && acrossRun[box] < TemplateValidator.MIN_ENTRY_LENGTH
+                        || downRun[box] >= 2 && downRun[box] < TemplateValidator.MIN_ENTRY_LENGTH;
+                boolean isUnchecked = !grid.isBlock(row, col) && (acrossRun[box] == 1 || downRun[box] == 1);
+                if(validator.isInShortEntry(row, col) != isShort || validator.isUncheckedBox(row, col) != isUnchecked){
+                    check(false, name + ": marks of box " + row + ", " + col);
+                    return false;
+                }
+                // which region is the main one is only certain when it is the only largest
+                boolean isCutOff = !grid.isBlock(row, col) && numRegions > 1 && regionOfBox[box] != largest;
+                if(largestSize > secondSize && validator.isCutOff(row, col) != isCutOff){
+                    check(false, name + ": box " + row + ", " + col + " cut off");
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static boolean isSameCount(int live, int fresh, int scratch, String name){
+        if(live == scratch && fresh == scratch)
+            return true;
+        check(false, name + ": " + live + " live, " + fresh + " new validator, " + scratch + " from scratch");
+        return false;
+    }
+
+    private static void check(boolean isPassed, String name){
+        numChecks++;
+        if(!isPassed){
+            numFailed++;
+            System.out.println("FAILED: " + name);
+        }
+    }
+
+}
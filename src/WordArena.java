@@ -0,0 +1,138 @@
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ *  CLASS: WordArena
+ *  PURPOSE: Packed storage for every dictionary word, read in place from a compiled dictionary (see DictionaryCompiler).
+ *  AUTHOR: Nathan Poppe
+ *
+ *  Words are never kept as String objects. All words of one length (a "bucket") are stored back to back as one contiguous
+ *  block of one byte letters, so a word is identified by its length and its ordinal (position in sorted order) and is only
+ *  turned into a String when it needs to be displayed.
+ *
+ *  Every word is stored once, even if it is in several word lists (dictionaries). Each bucket has a membership bitset per
+ *  dictionary, with the bit of every word that is in that dictionary set.
+ *
+ *  Every word also has a vowel mask (bit p set if its letter at position p is a vowel), so vowel/consonant questions about
+ *  a word never look at its letters. The words whose mask alternates (0101... or 1010...) have their own bitset per bucket.
+ */
+public class WordArena implements WordSource {
+
+    private ByteBuffer dictionary; // the whole compiled dictionary
+    private int numDictionaries;
+    private int[] indexEntries; // indexEntries[length]: the offset of the bucket's entry in the index
+    private int[] numWords; // numWords[length]
+    private ByteBuffer[] letters; // letters[length]: numWords[length] * length letters
+    private LongBuffer[] members; // members[length]: one membership bitset per dictionary
+    private LongBuffer[] alternating; // alternating[length]: the words alternating between vowels and consonants
+    private IntBuffer[] vowelMasks; // vowelMasks[length]: one mask per word
+
+    /**
+     * @param dictionary - a compiled dictionary (see DictionaryCompiler for the layout)
+     */
+    public WordArena(ByteBuffer dictionary){
+        this.dictionary = dictionary;
+        this.numDictionaries = dictionary.getInt(8);
+        int maxLength = dictionary.getInt(12);
+        indexEntries = new int[maxLength + 1];
+        numWords = new int[maxLength + 1];
+        letters = new ByteBuffer[maxLength + 1];
+        members = new LongBuffer[maxLength + 1];
+        alternating = new LongBuffer[maxLength + 1];
+        vowelMasks = new IntBuffer[maxLength + 1];
+        for(int length = 0; length <= maxLength; length++){
+            indexEntries[length] = DictionaryCompiler.getIndexStart(numDictionaries) + length * DictionaryCompiler.INDEX_ENTRY_SIZE;
+            numWords[length] = dictionary.getInt(indexEntries[length]);
+            letters[length] = slice(dictionary.getInt(indexEntries[length] + 4), numWords[length] * length);
+            members[length] = slice(dictionary.getInt(indexEntries[length] + 8), 8 * getNumLongs(length) * numDictionaries).asLongBuffer();
+            int masksOffset = dictionary.getInt(indexEntries[length] + 24);
+            alternating[length] = slice(masksOffset, 8 * getNumLongs(length)).asLongBuffer();
+            vowelMasks[length] = slice(masksOffset + 8 * getNumLongs(length), 4 * numWords[length]).asIntBuffer();
+        }
+    }
+
+    /**
+     * Returns a view of size bytes of the compiled dictionary starting at offset
+     */
+    ByteBuffer slice(int offset, int size){
+        ByteBuffer duplicate = dictionary.duplicate();
+        duplicate.position(offset);
+        duplicate.limit(offset + size);
+        return duplicate.slice();
+    }
+
+    /**
+     * Returns the given field (an int) of the bucket's entry in the index (see DictionaryCompiler)
+     */
+    int getIndexField(int length, int fieldOffset){
+        return dictionary.getInt(indexEntries[length] + fieldOffset);
+    }
+
+    public int getMaxLength(){
+        return numWords.length - 1;
+    }
+
+    public int getNumWords(int length){
+        if(length >= numWords.length)
+            return 0;
+        return numWords[length];
+    }
+
+    /**
+     * @return - the number of longs in one bitset over the bucket
+     */
+    public int getNumLongs(int length){
+        return DictionaryCompiler.getNumLongs(getNumWords(length));
+    }
+
+    public char getLetter(int length, int ordinal, int position){
+        return (char)(letters[length].get(ordinal * length + position) & 0xFF);
+    }
+
+    /**
+     * @return - the vowel mask of the word (bit p set if the letter at position p is a vowel)
+     */
+    public int getVowelMask(int length, int ordinal){
+        return vowelMasks[length].get(ordinal);
+    }
+
+    /**
+     * Turns the word with the given length and ordinal into a String
+     */
+    public String getWord(int length, int ordinal){
+        byte[] word = new byte[length];
+        for(int i = 0; i < length; i++){
+            word[i] = letters[length].get(ordinal * length + i);
+        }
+        return new String(word, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Removes every word that is not in the given dictionary from the bitset
+     * @param dictionaryNum - the word list the dictionary was compiled from (0 for the first list)
+     * @param length - the length of the words in the bitset
+     * @param matches - one bit per ordinal
+     */
+    public void keepMembers(int dictionaryNum, int length, long[] matches){
+        int offset = dictionaryNum * matches.length;
+        for(int i = 0; i < matches.length; i++){
+            matches[i] &= members[length].get(offset + i);
+        }
+    }
+
+    /**
+     * Removes every word that does not alternate between vowels and consonants from the bitset
+     */
+    public void keepAlternating(int length, long[] matches){
+        for(int i = 0; i < matches.length; i++){
+            matches[i] &= alternating[length].get(i);
+        }
+    }
+
+    public boolean isMember(int dictionaryNum, int length, int ordinal){
+        return (members[length].get(dictionaryNum * getNumLongs(length) + (ordinal >>> 6)) & (1L << ordinal)) != 0;
+    }
+
+}
@@ -1,93 +1,226 @@
-import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.InputStream;
-import java.util.ArrayList;
-import java.util.Scanner;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 public class WordFinder {
 
+    private final static String DICTIONARY_FILE_NAME = "resources/words.dict"; // the compiled word lists
+    private final static String REG_DICTIONARY_FILE_NAME = "resources/84000-words.dict"; // the 84000 word list compiled on its own
     private final static String REG_FILE_NAME = "resources/84000-words.txt";
     private final static String LONG_FILE_NAME = "resources/370000-words.txt";
 
-    private ArrayList<String> regWordList;
-    private ArrayList<String> longWordList;
+    // the order of the word lists in the compiled dictionary (the 84000 word list is also first in its own)
+    private final static int REG_DICTIONARY = 0;
+    private final static int LONG_DICTIONARY = 1;
 
+    private final static long DEFAULT_CACHE_MEMORY = 16 * 1024 * 1024; // max bytes used by cached searches
+
+    private CompletableFuture<WordIndex> regWordIndex; // only the 84000 word list, so it can be searched before the large one is loaded
+    private CompletableFuture<WordIndex> wordIndex; // holds both word lists (each word is only stored once), searched for the 370000 word list
+    private WordMatchesCache cache = new WordMatchesCache(DEFAULT_CACHE_MEMORY); // recent searches
+
+    // loads the dictionaries before returning
     public WordFinder(){
-        regWordList = readInWords(REG_FILE_NAME);
-        longWordList = readInWords(LONG_FILE_NAME);
+        this(Runnable::run);
     }
 
-    private ArrayList<String> readInWords(String fileName){
-        ArrayList<String> wordList = new ArrayList<String>();
-        try{
-            Scanner scanner = new Scanner(new File(fileName));
-            while (scanner.hasNextLine()){
-                wordList.add(scanner.nextLine());
-            }
-            scanner.close();
-        }
-        catch(FileNotFoundException e){
-            System.out.println("Could not read in words!");
-        }
-        return wordList;
+    private WordFinder(Executor executor){
+        DictionaryCompiler dictionaryCompiler = new DictionaryCompiler();
+        regWordIndex = CompletableFuture.supplyAsync(() -> new WordIndex(new WordArena(dictionaryCompiler.loadDictionary(REG_DICTIONARY_FILE_NAME, REG_FILE_NAME))), executor);
+        wordIndex = regWordIndex.thenApplyAsync(regIndex -> new WordIndex(new WordArena(dictionaryCompiler.loadDictionary(DICTIONARY_FILE_NAME, REG_FILE_NAME, LONG_FILE_NAME))), executor);
+    }
+
+    /**
+     * Loads the dictionaries on the executor, the 84000 word list first and the 370000 word list after it
+     * @param executor - the (background) executor to load on
+     * @return - a future that completes as soon as the 84000 word list can be searched (see whenLoaded for the other)
+     */
+    public static CompletableFuture<WordFinder> loadInBackground(Executor executor){
+        WordFinder wordFinder = new WordFinder(executor);
+        return wordFinder.whenLoaded(true);
     }
 
-    private ArrayList<String> setWordList(boolean useRegWordList){
+    /**
+     * @return - a future that completes as soon as the word list can be searched
+     */
+    public CompletableFuture<WordFinder> whenLoaded(boolean useRegWordList){
+        return getWordIndexFuture(useRegWordList).thenApply(index -> this);
+    }
+
+    public boolean isLoaded(boolean useRegWordList){
+        return getWordIndexFuture(useRegWordList).isDone();
+    }
+
+    private CompletableFuture<WordIndex> getWordIndexFuture(boolean useRegWordList){
         if(useRegWordList)
-            return regWordList;
+            return regWordIndex;
         else
-            return longWordList;
-    }
-
-    public ArrayList<String> findPossibleWords(boolean useRegWordList, String clue){
-        ArrayList<String> wordList = setWordList(useRegWordList);
-        ArrayList<String> possibleWords = new ArrayList<String>();
-        for(int i = 0; i < wordList.size(); i++){
-            String word = wordList.get(i);
-            clue = clue.toLowerCase().trim();
-            if(word.length() == clue.length()){
-                boolean possibleWord = true;
-                int letterCount = 0;
-                while(possibleWord && letterCount < word.length()){
-                    if(clue.charAt(letterCount) == word.charAt(letterCount) || clue.charAt(letterCount) == '_' || clue.charAt(letterCount) == '@' && isVowel(word.charAt(letterCount)) || clue.charAt(letterCount) == '#' && !isVowel(word.charAt(letterCount))){
-                        if(letterCount == word.length() - 1){
-                            possibleWords.add(word);
-                        }
-                        letterCount++;
-                    }
-                    else{
-                        possibleWord = false;
-                    }
-                }
-            }
+            return wordIndex;
+    }
+
+    private int getDictionaryNum(boolean useRegWordList){
+        if(useRegWordList)
+            return REG_DICTIONARY;
+        else
+            return LONG_DICTIONARY;
+    }
+
+    // waits for the word list if it is still loading
+    private WordIndex getWordIndex(boolean useRegWordList){
+        return getWordIndexFuture(useRegWordList).join();
+    }
+
+    public WordMatches findPossibleWords(boolean useRegWordList, String clue){
+        clue = clue.toLowerCase().trim();
+        String key = WordMatchesCache.getKey(getDictionaryNum(useRegWordList), false, clue);
+        WordMatches possibleWords = cache.get(key);
+        if(possibleWords == null){
+            possibleWords = findStorableWords(useRegWordList, clue, false);
+            cache.put(key, possibleWords);
         }
         return possibleWords;
     }
 
+    public WordMatches findAlternatingWords(boolean useRegWordList, String clue){
+        clue = clue.toLowerCase().trim();
+        String key = WordMatchesCache.getKey(getDictionaryNum(useRegWordList), true, clue);
+        WordMatches alternatingWords = cache.get(key);
+        if(alternatingWords == null){
+            alternatingWords = findStorableWords(useRegWordList, clue, true);
+            cache.put(key, alternatingWords);
+        }
+        return alternatingWords;
+    }
+
+    /**
+     * Finds the words matching the clue that can be written into the boxes: words with a letter outside a-z (eg. an
+     * accented letter, see DictionaryCompiler.OTHER_LETTER) are left out, the same as for autofill (see SlotDomains)
+     */
+    private WordMatches findStorableWords(boolean useRegWordList, String clue, boolean alternatingOnly){
+        WordIndex index = getWordIndex(useRegWordList);
+        long[] matches = index.findWordBits(getDictionaryNum(useRegWordList), clue, alternatingOnly);
+        for(int position = 0; position < clue.length(); position++){
+            index.removeLetter(matches, clue.length(), position, DictionaryCompiler.OTHER_LETTER);
+        }
+        return new WordMatches(index.getWordArena(), clue.length(), WordIndex.getOrdinals(matches));
+    }
 
-    public ArrayList<String> findAlternatingWords(boolean useRegWordList, String clue){
-        ArrayList<String> checkWords = findPossibleWords(useRegWordList, clue);
-        ArrayList<String> possibleWords = new ArrayList<String>();
-        for(int i = 0; i < checkWords.size(); i++){
-            String word = checkWords.get(i);
+    /**
+     * Creates the domains (the words that still fit each entry) for filling a crossword, see SlotDomains
+     * @param slotTable - the crossword's entries
+     * @param grid - the crossword's blocks and letters
+     */
+    public SlotDomains createSlotDomains(boolean useRegWordList, SlotTable slotTable, Grid grid){
+        return new SlotDomains(getWordIndex(useRegWordList), getDictionaryNum(useRegWordList), slotTable, grid);
+    }
+
+    /**
+     * Searches a user supplied word list (scanned in parallel if it is large, see WordList)
+     */
+    public WordMatches findPossibleWords(WordList wordList, String clue){
+        return removeUnstorableWords(wordList.findWords(clue.toLowerCase().trim(), false));
+    }
+
+    public WordMatches findAlternatingWords(WordList wordList, String clue){
+        return removeUnstorableWords(wordList.findWords(clue.toLowerCase().trim(), true));
+    }
+
+    /**
+     * @return - the words that only have letters a-z (the only letters a box can hold, see Grid.isStorable)
+     */
+    private WordMatches removeUnstorableWords(WordMatches words){
+        int[] storable = new int[words.size()];
+        int count = 0;
+        for(int i = 0; i < words.size(); i++){
+            boolean isStorable = true;
+            for(int position = 0; isStorable && position < words.getLength(); position++){
+                isStorable = Grid.isStorable(words.getLetter(i, position));
+            }
+            if(isStorable)
+                storable[count++] = words.getOrdinal(i);
+        }
+        return count == words.size() ? words : new WordMatches(words.getWordSource(), words.getLength(), Arrays.copyOf(storable, count));
+    }
+
+    /**
+     * Sets the max memory (in bytes) used by cached searches, the least recently used searches are removed first
+     */
+    public void setMaxCacheMemory(long maxMemory){
+        cache.setMaxMemory(maxMemory);
+    }
+
+    public long getCacheHits(){
+        return cache.getHits();
+    }
+
+    public long getCacheMisses(){
+        return cache.getMisses();
+    }
+
+    /**
+     * Checks if every word matching the new clue also matches the previous clue, eg. "s_p__e" --> "s_p_re".
+     * This is the case when the clues have the same length and every position either stayed the same or went from
+     * '_' to anything, or from '@'/'#' to a vowel/consonant.
+     * @param previousClue - the clue of the previous search
+     * @param clue - the new clue
+     * @return - true if the new words can be found by filtering the previous ones (see refineWords)
+     */
+    public boolean isRefinement(String previousClue, String clue){
+        previousClue = previousClue.toLowerCase().trim();
+        clue = clue.toLowerCase().trim();
+        if(previousClue.length() != clue.length())
+            return false;
+        for(int i = 0; i < clue.length(); i++){
+            char previous = previousClue.charAt(i);
+            char current = clue.charAt(i);
+            if(previous != current && previous != '_' && !(previous == '@' && isLetter(current) && isVowel(current)) && !(previous == '#' && isLetter(current) && !isVowel(current)))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Finds the words matching the new clue by filtering the words of the previous search instead of searching the whole
+     * dictionary again (only the positions that changed are checked). Only valid if isRefinement(previousClue, clue).
+     * @param previousWords - the words found for the previous clue (possible or alternating words)
+     * @param previousClue - the clue of the previous search
+     * @param clue - the new clue
+     * @return - the words matching the new clue, in dictionary order
+     */
+    public WordMatches refineWords(WordMatches previousWords, String previousClue, String clue){
+        previousClue = previousClue.toLowerCase().trim();
+        clue = clue.toLowerCase().trim();
+        int[] possibleWords = new int[previousWords.size()];
+        int count = 0;
+        for(int i = 0; i < previousWords.size(); i++){
             boolean possibleWord = true;
-            int letterCount = 1;
-            while(possibleWord && letterCount < word.length()){
-                if(isVowel(word.charAt(letterCount - 1)) == isVowel(word.charAt(letterCount))){
-                    possibleWord = false;
-                }
-                else{
-                    if(letterCount == word.length() - 1){
-                        possibleWords.add(word);
-                    }
-                }
+            int letterCount = 0;
+            while(possibleWord && letterCount < clue.length()){
+                char c = clue.charAt(letterCount);
+                if(c != previousClue.charAt(letterCount))
+                    possibleWord = matches(c, previousWords, i, letterCount);
                 letterCount++;
             }
+            if(possibleWord)
+                possibleWords[count++] = previousWords.getOrdinal(i);
         }
-        return possibleWords;
+        return new WordMatches(previousWords.getWordSource(), clue.length(), Arrays.copyOf(possibleWords, count));
+    }
+
+    // '@' and '#' are checked against the word's vowel mask instead of its letter
+    private boolean matches(char clueLetter, WordMatches words, int index, int position){
+        if(clueLetter == '_')
+            return true;
+        if(clueLetter == '@' || clueLetter == '#')
+            return ((words.getVowelMask(index) & (1 << position)) != 0) == (clueLetter == '@');
+        return clueLetter == words.getLetter(index, position);
+    }
+
+    private boolean isLetter(char c){
+        return c != '_' && c != '@' && c != '#';
     }
 
-    private boolean isVowel(char c){
+    public static boolean isVowel(char c){
         return "AEIOUaeiou".indexOf(c) != -1;
     }
 
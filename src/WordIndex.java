@@ -0,0 +1,201 @@
+import java.nio.LongBuffer;
+
+/**
+ *  CLASS: WordIndex
+ *  PURPOSE: A pre-built index over the dictionaries used to answer pattern queries such as "s_p__e" without scanning every word.
+ *  AUTHOR: Nathan Poppe
+ *
+ *  The index is read in place from a compiled dictionary (see DictionaryCompiler), nothing is parsed when it is opened.
+ *  Words are stored in the WordArena and grouped by length, with one WordTrie per length (a word's ordinal is its position
+ *  in sorted order). For every (length, position, letter) there is a bitset with one bit per word of that length,
+ *  set if the word has that letter at that position. A pattern is answered by ANDing the bitsets of its fixed letters together.
+ *  Patterns that start with a fixed letter are instead answered by walking the trie, which skips every other first letter.
+ *  Either way the result is then ANDed with the membership bitset of the dictionary being searched (and the alternating
+ *  bitset when only alternating words are wanted).
+ *  Vowel ('@') and consonant ('#') positions are checked with one compare against each word's vowel mask (see WordArena).
+ */
+public class WordIndex {
+
+    private final static int NUM_LETTERS = DictionaryCompiler.NUM_LETTERS;
+    private final static int OTHER_LETTER = DictionaryCompiler.OTHER_LETTER;
+
+    private WordArena wordArena;
+    private WordTrie[] tries; // tries[length]
+    private LongBuffer[] bits; // bits[length]: letter bitsets [position][letter]
+
+    public WordIndex(WordArena wordArena){
+        this.wordArena = wordArena;
+        tries = new WordTrie[wordArena.getMaxLength() + 1];
+        bits = new LongBuffer[wordArena.getMaxLength() + 1];
+        for(int length = 0; length <= wordArena.getMaxLength(); length++){
+            tries[length] = new WordTrie(wordArena, length);
+            int bitsOffset = wordArena.getIndexField(length, 20);
+            bits[length] = wordArena.slice(bitsOffset, 8 * wordArena.getNumLongs(length) * length * (NUM_LETTERS + 1)).asLongBuffer();
+        }
+    }
+
+    public WordArena getWordArena(){
+        return wordArena;
+    }
+
+    /**
+     * Finds every word of the dictionary matching the pattern ('_' any letter, '@' any vowel, '#' any consonant)
+     * @param dictionaryNum - the dictionary to search
+     * @param pattern - the lower case, trimmed pattern, eg. "s_p__e"
+     * @param alternatingOnly - true to only find words that alternate between vowels and consonants
+     * @return - the matching words in dictionary order
+     */
+    public WordMatches findWords(int dictionaryNum, String pattern, boolean alternatingOnly){
+        return new WordMatches(wordArena, pattern.length(), getOrdinals(findWordBits(dictionaryNum, pattern, alternatingOnly)));
+    }
+
+    /**
+     * Same as findWords, but returns the matching words as a bitset over the ordinals of the pattern's length
+     */
+    public long[] findWordBits(int dictionaryNum, String pattern, boolean alternatingOnly){
+        int length = pattern.length();
+        if(length == 0 || wordArena.getNumWords(length) == 0)
+            return new long[wordArena.getNumLongs(length)];
+
+        int numLongs = wordArena.getNumLongs(length);
+        long[] matches = new long[numLongs];
+        boolean hasOtherLetter = false;
+        if(isFixedLetter(pattern.charAt(0))){
+            tries[length].findWords(pattern, matches);
+        }
+        else{
+            fillValidBits(matches, wordArena.getNumWords(length));
+            for(int position = 0; position < length; position++){
+                char c = pattern.charAt(position);
+                if(isFixedLetter(c)){
+                    int letterIndex = getLetterIndex(c);
+                    hasOtherLetter |= letterIndex == OTHER_LETTER;
+                    and(matches, bits[length], (position * (NUM_LETTERS + 1) + letterIndex) * numLongs);
+                }
+            }
+        }
+        wordArena.keepMembers(dictionaryNum, length, matches);
+        if(alternatingOnly)
+            wordArena.keepAlternating(length, matches);
+
+        if(hasOtherLetter)
+            removeOtherLetterMismatches(pattern, matches);
+        if(!isFixedLetter(pattern.charAt(0)))
+            removeClassMismatches(pattern, matches); // the trie walk already checked them
+        return matches;
+    }
+
+    /**
+     * Keeps only the words with the letter (a-z, or OTHER_LETTER for any other char) at the position
+     * @param matches - a bitset over the ordinals of the given length
+     */
+    public void keepLetter(long[] matches, int length, int position, int letterIndex){
+        and(matches, bits[length], (position * (NUM_LETTERS + 1) + letterIndex) * matches.length);
+    }
+
+    /**
+     * Removes the words with the letter (a-z, or OTHER_LETTER for any other char) at the position
+     * @param matches - a bitset over the ordinals of the given length
+     */
+    public void removeLetter(long[] matches, int length, int position, int letterIndex){
+        int offset = (position * (NUM_LETTERS + 1) + letterIndex) * matches.length;
+        for(int i = 0; i < matches.length; i++){
+            matches[i] &= ~bits[length].get(offset + i);
+        }
+    }
+
+    private boolean isFixedLetter(char c){
+        return c != '_' && c != '@' && c != '#';
+    }
+
+    /**
+     * Returns the ordinal of every set bit (in ordinal order)
+     */
+    public static int[] getOrdinals(long[] matches){
+        int count = 0;
+        for(int i = 0; i < matches.length; i++){
+            count += Long.bitCount(matches[i]);
+        }
+        int[] ordinals = new int[count];
+        count = 0;
+        for(int i = 0; i < matches.length; i++){
+            long bits = matches[i];
+            while(bits != 0){
+                ordinals[count++] = (i << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+            }
+        }
+        return ordinals;
+    }
+
+    /**
+     * The OTHER_LETTER bitsets group all non a-z chars together, so those positions are compared directly
+     */
+    private void removeOtherLetterMismatches(String pattern, long[] matches){
+        int length = pattern.length();
+        for(int i = 0; i < matches.length; i++){
+            long bits = matches[i];
+            while(bits != 0){
+                int ordinal = (i << 6) + Long.numberOfTrailingZeros(bits);
+                if(!matchesOtherLetters(length, ordinal, pattern))
+                    matches[i] &= ~(1L << ordinal);
+                bits &= bits - 1;
+            }
+        }
+    }
+
+    /**
+     * Removes the words that have a consonant at a '@' position or a vowel at a '#' position
+     */
+    private void removeClassMismatches(String pattern, long[] matches){
+        int length = pattern.length();
+        int classMask = 0; // the '@' and '#' positions
+        int vowelMask = 0; // the '@' positions
+        for(int position = 0; position < length; position++){
+            char c = pattern.charAt(position);
+            if(c == '@' || c == '#')
+                classMask |= 1 << position;
+            if(c == '@')
+                vowelMask |= 1 << position;
+        }
+        if(classMask == 0)
+            return;
+        for(int i = 0; i < matches.length; i++){
+            long bits = matches[i];
+            while(bits != 0){
+                int ordinal = (i << 6) + Long.numberOfTrailingZeros(bits);
+                if((wordArena.getVowelMask(length, ordinal) & classMask) != vowelMask)
+                    matches[i] &= ~(1L << ordinal);
+                bits &= bits - 1;
+            }
+        }
+    }
+
+    private boolean matchesOtherLetters(int length, int ordinal, String pattern){
+        for(int position = 0; position < length; position++){
+            char c = pattern.charAt(position);
+            if(isFixedLetter(c) && getLetterIndex(c) == OTHER_LETTER && c != wordArena.getLetter(length, ordinal, position))
+                return false;
+        }
+        return true;
+    }
+
+    private void and(long[] matches, LongBuffer bits, int offset){
+        for(int i = 0; i < matches.length; i++){
+            matches[i] &= bits.get(offset + i);
+        }
+    }
+
+    private void fillValidBits(long[] bits, int numWords){
+        for(int i = 0; i < bits.length; i++){
+            bits[i] = -1L;
+        }
+        if(numWords % 64 != 0)
+            bits[bits.length - 1] = (1L << (numWords % 64)) - 1;
+    }
+
+    private int getLetterIndex(char c){
+        return DictionaryCompiler.getLetterIndex(c);
+    }
+
+}
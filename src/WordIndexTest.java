@@ -0,0 +1,210 @@
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Scanner;
+
+/**
+ *  CLASS: WordIndexTest
+ *  PURPOSE: Checks the word searches (the letter bitsets, the trie walk and the vowel masks) against scanning every word
+ *           of the word lists (no GUI, exits with 1 if a check fails).
+ *  AUTHOR: Nathan Poppe
+ *
+ *  Usage: java -cp .:jars/* WordIndexTest
+ *  Random patterns are searched in both word lists with WordIndex (every word, also ones with letters outside a-z) and
+ *  with WordFinder (only words a box can hold), for possible and for alternating words, and compared with a scan of the
+ *  text files. Most patterns are made from a word of the list (some of its letters kept, the others turned into '_', '@'
+ *  or '#'), so they have matches: words with accented letters are picked on purpose, so their letters go through the
+ *  OTHER_LETTER bitset. A fixed first letter is searched by the trie walk, a wildcard first letter by the bitsets.
+ */
+public class WordIndexTest {
+
+    private final static String DICTIONARY_FILE_NAME = "resources/words.dict";
+    private final static String[] WORD_LIST_FILE_NAMES = {"resources/84000-words.txt", "resources/370000-words.txt"};
+    private final static int PATTERNS_PER_LIST = 1500;
+    private final static int MAX_PATTERN_LENGTH = 15;
+    private final static String RANDOM_CHARS = "abcdefghijklmnopqrstuvwxyz\u00e9\u00e8\u00f1___@@##"; // for patterns not made from a word
+
+    private static int numChecks;
+    private static int numFailed;
+
+    public static void main(String[] args){
+        System.setProperty("java.awt.headless", "true"); // never needs a display
+        WordIndex wordIndex = new WordIndex(new WordArena(new DictionaryCompiler().loadDictionary(DICTIONARY_FILE_NAME, WORD_LIST_FILE_NAMES)));
+        WordFinder wordFinder = new WordFinder();
+        Random random = new Random(1);
+        for(int dictionaryNum = 0; dictionaryNum < WORD_LIST_FILE_NAMES.length; dictionaryNum++){
+            ArrayList<ArrayList<String>> words = readInWords(WORD_LIST_FILE_NAMES[dictionaryNum]);
+            ArrayList<ArrayList<String>> otherLetterWords = new ArrayList<ArrayList<String>>(); // the words with a letter outside a-z
+            int numOtherLetterWords = 0;
+            for(ArrayList<String> bucket : words){
+                ArrayList<String> others = new ArrayList<String>();
+                for(String word : bucket){
+                    if(!isStorable(word))
+                        others.add(word);
+                }
+                otherLetterWords.add(others);
+                numOtherLetterWords += others.size();
+            }
+            check(numOtherLetterWords > 0, WORD_LIST_FILE_NAMES[dictionaryNum] + " has " + numOtherLetterWords + " words with letters outside a-z");
+
+            boolean useRegWordList = dictionaryNum == 0;
+            int numMatched = 0, numSame = 0;
+            for(int i = 0; i < PATTERNS_PER_LIST; i++){
+                String pattern = createPattern(words, otherLetterWords, random, i % 5 == 0);
+                for(boolean alternatingOnly : new boolean[]{false, true}){
+                    List<String> expected = scan(words, pattern, alternatingOnly);
+                    List<String> found = sorted(getWords(wordIndex.findWords(dictionaryNum, pattern, alternatingOnly)));
+                    boolean isSame = found.equals(expected);
+                    check(isSame, WORD_LIST_FILE_NAMES[dictionaryNum] + " \"" + pattern + "\"" + (alternatingOnly ? " alternating" : "")
+                            + ": index found " + found.size() + ", scan " + expected.size());
+
+                    ArrayList<String> storable = new ArrayList<String>();
+                    for(String word : expected){
+                        if(isStorable(word))
+                            storable.add(word);
+                    }
+                    WordMatches finderWords = alternatingOnly ? wordFinder.findAlternatingWords(useRegWordList, pattern) : wordFinder.findPossibleWords(useRegWordList, pattern);
+                    boolean isFinderSame = sorted(getWords(finderWords)).equals(storable);
+                    check(isFinderSame, WORD_LIST_FILE_NAMES[dictionaryNum] + " \"" + pattern + "\"" + (alternatingOnly ? " alternating" : "")
+                            + ": WordFinder found " + finderWords.size() + ", scan " + storable.size());
+                    numMatched += expected.isEmpty() ? 0 : 1;
+                    numSame += isSame && isFinderSame ? 1 : 0;
+                }
+            }
+            check(numMatched > PATTERNS_PER_LIST / 2, WORD_LIST_FILE_NAMES[dictionaryNum] + ": " + numMatched + " searches had matches");
+            System.out.println(WORD_LIST_FILE_NAMES[dictionaryNum] + ": " + numSame + " of " + 2 * PATTERNS_PER_LIST + " searches match the scan");
+        }
+        System.out.println((numChecks - numFailed) + " of " + numChecks + " checks passed");
+        System.exit(numFailed == 0 ? 0 : 1);
+    }
+
+    /**
+     * Reads in the words the way DictionaryCompiler does (at most MAX_WORD_LENGTH letters, one byte per letter, no repeats)
+     * @return - the words of every length, sorted
+     */
+    private static ArrayList<ArrayList<String>> readInWords(String fileName){
+        CharsetEncoder encoder = StandardCharsets.ISO_8859_1.newEncoder();
+        ArrayList<LinkedHashSet<String>> unique = new ArrayList<LinkedHashSet<String>>();
+        for(int length = 0; length <= DictionaryCompiler.MAX_WORD_LENGTH; length++){
+            unique.add(new LinkedHashSet<String>());
+        }
+        try{
+            Scanner scanner = new Scanner(new File(fileName), "UTF-8");
+            while(scanner.hasNextLine()){
+                String word = scanner.nextLine();
+                if(word.length() <= DictionaryCompiler.MAX_WORD_LENGTH && encoder.canEncode(word))
+                    unique.get(word.length()).add(word);
+            }
+            scanner.close();
+        }
+        catch(FileNotFoundException e){
+            System.out.println("Could not read in words!");
+        }
+        ArrayList<ArrayList<String>> words = new ArrayList<ArrayList<String>>();
+        for(LinkedHashSet<String> bucket : unique){
+            words.add(sorted(new ArrayList<String>(bucket)));
+        }
+        return words;
+    }
+
+    /**
+     * @param isRandom - true for random letters and wildcards, false for a pattern made from a word of the list
+     */
+    private static String createPattern(ArrayList<ArrayList<String>> words, ArrayList<ArrayList<String>> otherLetterWords, Random random, boolean isRandom){
+        int length;
+        do{
+            length = 1 + random.nextInt(MAX_PATTERN_LENGTH);
+        } while(words.get(length).isEmpty());
+        StringBuilder pattern = new StringBuilder();
+        if(isRandom){
+            for(int position = 0; position < length; position++){
+                pattern.append(RANDOM_CHARS.charAt(random.nextInt(RANDOM_CHARS.length())));
+            }
+            return pattern.toString();
+        }
+        ArrayList<String> bucket = random.nextInt(3) == 0 && !otherLetterWords.get(length).isEmpty() ? otherLetterWords.get(length) : words.get(length);
+        String word = bucket.get(random.nextInt(bucket.size())).toLowerCase();
+        for(int position = 0; position < length; position++){
+            char c = word.charAt(position);
+            int choice = random.nextInt(6);
+            if(choice < 2)
+                pattern.append(c);
+            else if(choice == 2)
+                pattern.append(WordFinder.isVowel(c) ? '@' : '#');
+            else if(choice == 3)
+                pattern.append(random.nextBoolean() ? '@' : '#'); // may not match the word
+            else
+                pattern.append('_');
+        }
+        return pattern.toString();
+    }
+
+    /**
+     * @return - the words matching the pattern, found by checking every word of its length one letter at a time
+     */
+    private static List<String> scan(ArrayList<ArrayList<String>> words, String pattern, boolean alternatingOnly){
+        ArrayList<String> matches = new ArrayList<String>();
+        if(pattern.length() >= words.size())
+            return matches;
+        for(String word : words.get(pattern.length())){
+            boolean isMatch = !alternatingOnly || isAlternating(word);
+            for(int position = 0; isMatch && position < word.length(); position++){
+                char c = pattern.charAt(position), letter = word.charAt(position);
+                if(c == '@')
+                    isMatch = WordFinder.isVowel(letter);
+                else if(c == '#')
+                    isMatch = !WordFinder.isVowel(letter);
+                else if(c != '_')
+                    isMatch = c == letter;
+            }
+            if(isMatch)
+                matches.add(word);
+        }
+        return matches;
+    }
+
+    // at least two letters, every letter a vowel if the one before it is a consonant and the other way around
+    private static boolean isAlternating(String word){
+        for(int position = 1; position < word.length(); position++){
+            if(WordFinder.isVowel(word.charAt(position)) == WordFinder.isVowel(word.charAt(position - 1)))
+                return false;
+        }
+        return word.length() > 1;
+    }
+
+    private static boolean isStorable(String word){
+        for(int position = 0; position < word.length(); position++){
+            if(!Grid.isStorable(word.charAt(position)))
+                return false;
+        }
+        return true;
+    }
+
+    private static ArrayList<String> getWords(WordMatches matches){
+        ArrayList<String> words = new ArrayList<String>();
+        for(int i = 0; i < matches.size(); i++){
+            words.add(matches.getWord(i));
+        }
+        return words;
+    }
+
+    private static ArrayList<String> sorted(ArrayList<String> words){
+        Collections.sort(words);
+        return words;
+    }
+
+    private static void check(boolean isPassed, String name){
+        numChecks++;
+        if(!isPassed){
+            numFailed++;
+            System.out.println("FAILED: " + name);
+        }
+    }
+
+}
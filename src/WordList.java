@@ -0,0 +1,232 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ *  CLASS: WordList
+ *  PURPOSE: A user supplied word list (one word or phrase per line) that is searched by scanning instead of through an index.
+ *  AUTHOR: Nathan Poppe
+ *
+ *  Third party lists can have millions of entries, too many to compile the WordIndex bitsets for, so every search scans the
+ *  bucket of the pattern's length. Phrases are stored without their spaces and punctuation ("ice cream" --> "icecream") since
+ *  that is how they are filled into a crossword.
+ *
+ *  Small buckets are scanned on the calling thread. Buckets of at least PARALLEL_THRESHOLD words are split into ranges that
+ *  are scanned on a ForkJoinPool, the matches of each range are then joined in order so the result stays in dictionary order.
+ */
+public class WordList implements WordSource {
+
+    private final static int PARALLEL_THRESHOLD = 100000; // min words in a bucket to scan it in parallel
+    private final static int MIN_RANGE_SIZE = 16384; // a parallel scan does not split ranges smaller than this
+
+    private ForkJoinPool pool;
+    private int numWords;
+    private byte[][] letters; // letters[length]: the words of that length back to back, in sorted order
+    private int[][] vowelMasks; // vowelMasks[length][ordinal]
+
+    /**
+     * Reads in the word list and scans it on the common ForkJoinPool
+     * @param fileName - the path to the word list
+     */
+    public WordList(String fileName){
+        this(fileName, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param fileName - the path to the word list
+     * @param pool - the pool that large buckets are scanned on
+     */
+    public WordList(String fileName, ForkJoinPool pool){
+        this.pool = pool;
+        ArrayList<String[]> words = readInWords(fileName);
+        letters = new byte[words.size()][];
+        vowelMasks = new int[words.size()][];
+        for(int length = 0; length < words.size(); length++){
+            letters[length] = new byte[words.get(length).length * length];
+            vowelMasks[length] = new int[words.get(length).length];
+            int ordinal = 0;
+            for(String word : words.get(length)){
+                byte[] wordLetters = word.getBytes(StandardCharsets.ISO_8859_1);
+                System.arraycopy(wordLetters, 0, letters[length], ordinal * length, length);
+                for(int position = 0; position < length; position++){
+                    if(WordFinder.isVowel(word.charAt(position)))
+                        vowelMasks[length][ordinal] |= 1 << position;
+                }
+                ordinal++;
+            }
+            numWords += ordinal;
+        }
+    }
+
+    /**
+     * @return - the normalized words grouped by length, each length sorted and without duplicates
+     */
+    private ArrayList<String[]> readInWords(String fileName){
+        ArrayList<ArrayList<String>> words = new ArrayList<ArrayList<String>>();
+        words.add(new ArrayList<String>());
+        CharsetEncoder encoder = StandardCharsets.ISO_8859_1.newEncoder();
+        try(BufferedReader reader = Files.newBufferedReader(Paths.get(fileName), StandardCharsets.UTF_8)){
+            String line;
+            while((line = reader.readLine()) != null){
+                String word = normalize(line);
+                if(word.isEmpty() || word.length() > DictionaryCompiler.MAX_WORD_LENGTH || !encoder.canEncode(word))
+                    continue;
+                while(words.size() <= word.length()){
+                    words.add(new ArrayList<String>());
+                }
+                words.get(word.length()).add(word);
+            }
+        }
+        catch(IOException e){
+            System.out.println("Could not read in words: " + fileName);
+        }
+        ArrayList<String[]> sortedWords = new ArrayList<String[]>();
+        for(ArrayList<String> bucket : words){
+            sortedWords.add(sortUnique(bucket));
+        }
+        return sortedWords;
+    }
+
+    private String[] sortUnique(ArrayList<String> bucket){
+        String[] words = bucket.toArray(new String[bucket.size()]);
+        bucket.clear();
+        Arrays.parallelSort(words);
+        int count = 0;
+        for(int i = 0; i < words.length; i++){
+            if(count == 0 || !words[i].equals(words[count - 1]))
+                words[count++] = words[i];
+        }
+        return Arrays.copyOf(words, count);
+    }
+
+    // lower case letters only, eg. "Ice-Cream Cone" --> "icecreamcone"
+    private String normalize(String line){
+        StringBuilder word = new StringBuilder();
+        for(int i = 0; i < line.length(); i++){
+            if(Character.isLetter(line.charAt(i)))
+                word.append(Character.toLowerCase(line.charAt(i)));
+        }
+        return word.toString();
+    }
+
+    public int size(){
+        return numWords;
+    }
+
+    public int getNumWords(int length){
+        if(length >= letters.length)
+            return 0;
+        return vowelMasks[length].length;
+    }
+
+    public char getLetter(int length, int ordinal, int position){
+        return (char)(letters[length][ordinal * length + position] & 0xFF);
+    }
+
+    public int getVowelMask(int length, int ordinal){
+        return vowelMasks[length][ordinal];
+    }
+
+    public String getWord(int length, int ordinal){
+        return new String(letters[length], ordinal * length, length, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Finds every word matching the pattern ('_' any letter, '@' any vowel, '#' any consonant)
+     * @param pattern - the lower case, trimmed pattern, eg. "s_p__e"
+     * @param alternatingOnly - true to only find words that alternate between vowels and consonants
+     * @return - the matching words in dictionary order
+     */
+    public WordMatches findWords(String pattern, boolean alternatingOnly){
+        int length = pattern.length();
+        int numWords = getNumWords(length);
+        if(length == 0 || numWords == 0)
+            return new WordMatches(this, length, new int[0]);
+
+        Scan scan = new Scan(pattern, alternatingOnly, 0, numWords);
+        if(numWords < PARALLEL_THRESHOLD)
+            return new WordMatches(this, length, scan.scan());
+        return new WordMatches(this, length, pool.invoke(scan));
+    }
+
+    /**
+     * Scans the words from ... to - 1 of one bucket, splitting the range in half until it is small enough
+     */
+    private class Scan extends RecursiveTask<int[]> {
+
+        private final static long serialVersionUID = 1L;
+
+        private String pattern;
+        private boolean alternatingOnly;
+        private int from, to;
+
+        public Scan(String pattern, boolean alternatingOnly, int from, int to){
+            this.pattern = pattern;
+            this.alternatingOnly = alternatingOnly;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected int[] compute(){
+            if(to - from >= 2 * MIN_RANGE_SIZE)
+                return split();
+            return scan();
+        }
+
+        private int[] split(){
+            int mid = (from + to) >>> 1;
+            Scan left = new Scan(pattern, alternatingOnly, from, mid);
+            Scan right = new Scan(pattern, alternatingOnly, mid, to);
+            left.fork();
+            int[] rightMatches = right.compute();
+            int[] leftMatches = left.join();
+            int[] matches = Arrays.copyOf(leftMatches, leftMatches.length + rightMatches.length);
+            System.arraycopy(rightMatches, 0, matches, leftMatches.length, rightMatches.length);
+            return matches;
+        }
+
+        private int[] scan(){
+            int length = pattern.length();
+            byte[] bucket = letters[length];
+            int[] masks = vowelMasks[length];
+            int classMask = 0; // the '@' and '#' positions
+            int vowelMask = 0; // the '@' positions
+            for(int position = 0; position < length; position++){
+                char c = pattern.charAt(position);
+                if(c == '@' || c == '#')
+                    classMask |= 1 << position;
+                if(c == '@')
+                    vowelMask |= 1 << position;
+            }
+
+            int[] matches = new int[to - from];
+            int count = 0;
+            for(int ordinal = from; ordinal < to; ordinal++){
+                if((masks[ordinal] & classMask) != vowelMask || alternatingOnly && !DictionaryCompiler.isAlternatingMask(masks[ordinal], length))
+                    continue;
+                int start = ordinal * length;
+                int position = 0;
+                while(position < length && isMatch(pattern.charAt(position), bucket[start + position])){
+                    position++;
+                }
+                if(position == length)
+                    matches[count++] = ordinal;
+            }
+            return Arrays.copyOf(matches, count);
+        }
+
+        private boolean isMatch(char c, byte letter){
+            return c == '_' || c == '@' || c == '#' || c == (char)(letter & 0xFF);
+        }
+
+    }
+
+}
@@ -0,0 +1,58 @@
+import javax.swing.*;
+
+/**
+ *  CLASS: WordListModel
+ *  PURPOSE: The model of the helper panel's word list, a view over the WordMatches of the last search.
+ *  AUTHOR: Nathan Poppe
+ *
+ *  Nothing is copied when the words change: the list only asks for the rows it renders, so a word only becomes an
+ *  upper case String when it is scrolled into view. Changing the words fires one event instead of one per word.
+ */
+public class WordListModel extends AbstractListModel<String> {
+
+    private WordMatches words; // null while a message is shown instead
+    private String message;
+
+    public WordListModel(){
+        this.message = "";
+    }
+
+    public void setWords(WordMatches words){
+        int oldSize = getSize();
+        this.words = words;
+        this.message = null;
+        fireChanged(oldSize);
+    }
+
+    /**
+     * Shows a single message row (eg. while the dictionaries are loading) instead of words
+     */
+    public void setMessage(String message){
+        int oldSize = getSize();
+        this.words = null;
+        this.message = message;
+        fireChanged(oldSize);
+    }
+
+    private void fireChanged(int oldSize){
+        if(oldSize > 0)
+            fireIntervalRemoved(this, 0, oldSize - 1);
+        if(getSize() > 0)
+            fireIntervalAdded(this, 0, getSize() - 1);
+    }
+
+    @Override
+    public int getSize(){
+        if(words == null)
+            return message.isEmpty() ? 0 : 1;
+        return words.size();
+    }
+
+    @Override
+    public String getElementAt(int index){
+        if(words == null)
+            return message;
+        return words.getWord(index).toUpperCase();
+    }
+
+}
@@ -0,0 +1,55 @@
+/**
+ *  CLASS: WordMatches
+ *  PURPOSE: The result of a WordFinder search: the ordinals of the matching words (all of one length) in dictionary order.
+ *  AUTHOR: Nathan Poppe
+ *
+ *  The words stay packed in their WordSource, a word only becomes a String when getWord is called (eg. to display it).
+ */
+public class WordMatches {
+
+    private WordSource wordSource;
+    private int length; // the length of every matching word
+    private int[] ordinals;
+
+    public WordMatches(WordSource wordSource, int length, int[] ordinals){
+        this.wordSource = wordSource;
+        this.length = length;
+        this.ordinals = ordinals;
+    }
+
+    public WordSource getWordSource(){
+        return wordSource;
+    }
+
+    public int size(){
+        return ordinals.length;
+    }
+
+    public int getLength(){
+        return length;
+    }
+
+    public int getOrdinal(int index){
+        return ordinals[index];
+    }
+
+    public String getWord(int index){
+        return wordSource.getWord(length, ordinals[index]);
+    }
+
+    /**
+     * @return - an estimate of the bytes used by this object (for WordMatchesCache)
+     */
+    public long getMemorySize(){
+        return 32 + 16 + 4L * ordinals.length;
+    }
+
+    public char getLetter(int index, int position){
+        return wordSource.getLetter(length, ordinals[index], position);
+    }
+
+    public int getVowelMask(int index){
+        return wordSource.getVowelMask(length, ordinals[index]);
+    }
+
+}
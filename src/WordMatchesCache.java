@@ -0,0 +1,98 @@
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ *  CLASS: WordMatchesCache
+ *  PURPOSE: A least recently used cache of WordFinder search results, bounded by the (estimated) memory the results use.
+ *  AUTHOR: Nathan Poppe
+ *
+ *  Searches are keyed by the dictionary, whether only alternating words are wanted and the normalized clue, eg. "0P:s_p__e".
+ *  The cache is shared between threads, so every method is synchronized.
+ */
+public class WordMatchesCache {
+
+    private final static int ENTRY_OVERHEAD = 64; // estimated bytes for the map entry and key object of one cached search
+
+    private LinkedHashMap<String, WordMatches> cache; // iterates from least to most recently used
+    private long maxMemory; // in bytes
+    private long memory; // estimated bytes used by all cached searches
+    private long hits;
+    private long misses;
+
+    public WordMatchesCache(long maxMemory){
+        this.cache = new LinkedHashMap<String, WordMatches>(16, 0.75f, true);
+        this.maxMemory = maxMemory;
+    }
+
+    public static String getKey(int dictionaryNum, boolean isAlternating, String clue){
+        return dictionaryNum + (isAlternating ? "A:" : "P:") + clue;
+    }
+
+    /**
+     * @return - the cached words for the key (and marks them as most recently used), null if not cached
+     */
+    public synchronized WordMatches get(String key){
+        WordMatches words = cache.get(key);
+        if(words == null)
+            misses++;
+        else
+            hits++;
+        return words;
+    }
+
+    public synchronized void put(String key, WordMatches words){
+        WordMatches previous = cache.put(key, words);
+        if(previous != null)
+            memory -= getMemorySize(key, previous);
+        memory += getMemorySize(key, words);
+        removeLeastRecentlyUsed();
+    }
+
+    /**
+     * Removes the least recently used searches until the cache fits into maxMemory again
+     */
+    private void removeLeastRecentlyUsed(){
+        Iterator<Map.Entry<String, WordMatches>> iterator = cache.entrySet().iterator();
+        while(memory > maxMemory && iterator.hasNext()){
+            Map.Entry<String, WordMatches> entry = iterator.next();
+            memory -= getMemorySize(entry.getKey(), entry.getValue());
+            iterator.remove();
+        }
+    }
+
+    private long getMemorySize(String key, WordMatches words){
+        return ENTRY_OVERHEAD + 2L * key.length() + words.getMemorySize();
+    }
+
+    public synchronized void setMaxMemory(long maxMemory){
+        this.maxMemory = maxMemory;
+        removeLeastRecentlyUsed();
+    }
+
+    public synchronized void clear(){
+        cache.clear();
+        memory = 0;
+    }
+
+    public synchronized long getMaxMemory(){
+        return maxMemory;
+    }
+
+    public synchronized long getMemory(){
+        return memory;
+    }
+
+    public synchronized int size(){
+        return cache.size();
+    }
+
+    public synchronized long getHits(){
+        return hits;
+    }
+
+    public synchronized long getMisses(){
+        return misses;
+    }
+
+}
@@ -0,0 +1,22 @@
+
+/**
+ *  INTERFACE: WordSource
+ *  PURPOSE: Packed words grouped by length, each identified by its length and ordinal (position in sorted order).
+ *           WordMatches reads its words from a WordSource (the compiled WordArena or a user WordList).
+ *  AUTHOR: Nathan Poppe
+ */
+public interface WordSource {
+
+    char getLetter(int length, int ordinal, int position);
+
+    /**
+     * @return - the vowel mask of the word (bit p set if the letter at position p is a vowel)
+     */
+    int getVowelMask(int length, int ordinal);
+
+    /**
+     * Turns the word with the given length and ordinal into a String
+     */
+    String getWord(int length, int ordinal);
+
+}
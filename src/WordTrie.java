@@ -0,0 +1,105 @@
+import java.nio.IntBuffer;
+
+/**
+ *  CLASS: WordTrie
+ *  PURPOSE: A trie over every dictionary word of one length, read in place from a compiled dictionary (see DictionaryCompiler).
+ *  AUTHOR: Nathan Poppe
+ *
+ *  The words of the bucket are stored sorted in the WordArena.
+ *  Nodes are numbered in level order (all depth 0 nodes, then all depth 1 nodes, ...) and the children of a node are
+ *  contiguous and sorted. Every node covers a range of consecutive words that share its prefix, so a node only needs
+ *  the index of its first child and the ordinal of its first word: its letter is that word's letter at the node's depth.
+ *
+ *  The leaves (depth length - 1) are in sorted order, so the n-th leaf is the word with ordinal n. This is the same ordinal
+ *  that the WordIndex bitsets use.
+ *
+ *  Example (length 3: "ape", "apt", "arc"):
+ *      depth 0:  a
+ *      depth 1:  p r
+ *      depth 2:  e t c   --> ordinals 0 1 2
+ */
+public class WordTrie {
+
+    private WordArena wordArena; // holds the words
+    private int length; // the length of every word in the trie
+    private IntBuffer levelStart; // the nodes at depth d are levelStart[d] ... levelStart[d + 1] - 1
+    private IntBuffer childStart; // children of node n are childStart[n] ... childStart[n + 1] - 1
+    private IntBuffer firstOrdinal; // the ordinal of the first word under each node
+
+    /**
+     * @param wordArena - the words of the compiled dictionary
+     * @param length - the length of every word
+     */
+    public WordTrie(WordArena wordArena, int length){
+        this.wordArena = wordArena;
+        this.length = length;
+        int trieOffset = wordArena.getIndexField(length, 12);
+        int numNodes = wordArena.getIndexField(length, 16);
+        this.levelStart = wordArena.slice(trieOffset, 4 * (length + 1)).asIntBuffer();
+        this.childStart = wordArena.slice(trieOffset + 4 * (length + 1), 4 * (numNodes + 1)).asIntBuffer();
+        this.firstOrdinal = wordArena.slice(trieOffset + 4 * (length + 1) + 4 * (numNodes + 1), 4 * numNodes).asIntBuffer();
+    }
+
+    private char getLabel(int node, int depth){
+        return wordArena.getLetter(length, firstOrdinal.get(node), depth);
+    }
+
+    // every word under the node shares its prefix, so the first word's vowel mask tells if the node's letter is a vowel
+    private boolean isVowelNode(int node, int depth){
+        return (wordArena.getVowelMask(length, firstOrdinal.get(node)) & (1 << depth)) != 0;
+    }
+
+    /**
+     * Walks the trie along the pattern and sets the bit of every matching word.
+     * A whole subtree is skipped as soon as one of its letters does not match the pattern.
+     * @param pattern - the pattern ('_' any letter, '@' any vowel, '#' any consonant), same length as the words
+     * @param matches - the bitset (one bit per ordinal) that matching words are added to
+     */
+    public void findWords(String pattern, long[] matches){
+        if(length > 0)
+            findWords(pattern, 0, levelStart.get(0), levelStart.get(1), matches);
+    }
+
+    private void findWords(String pattern, int depth, int from, int to, long[] matches){
+        char c = pattern.charAt(depth);
+        if(c != '_' && c != '@' && c != '#'){
+            int node = findChild(c, depth, from, to);
+            if(node == -1)
+                return; // no word continues with this letter
+            from = node;
+            to = node + 1;
+        }
+        for(int node = from; node < to; node++){
+            if(c == '@' && !isVowelNode(node, depth) || c == '#' && isVowelNode(node, depth))
+                continue;
+            if(depth == length - 1){
+                int ordinal = node - levelStart.get(depth);
+                matches[ordinal >>> 6] |= 1L << ordinal;
+            }
+            else{
+                findWords(pattern, depth + 1, childStart.get(node), childStart.get(node + 1), matches);
+            }
+        }
+    }
+
+    /**
+     * Binary searches the (sorted) children from ... to - 1 for the given letter
+     * @return - the matching node, -1 if there is none
+     */
+    private int findChild(char c, int depth, int from, int to){
+        int low = from;
+        int high = to - 1;
+        while(low <= high){
+            int mid = (low + high) >>> 1;
+            char label = getLabel(mid, depth);
+            if(label < c)
+                low = mid + 1;
+            else if(label > c)
+                high = mid - 1;
+            else
+                return mid;
+        }
+        return -1;
+    }
+
+}